@@ -5,9 +5,12 @@ import java.net.URISyntaxException;
 import java.util.*;
 
 import chess.*;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
 import client.websocket.NotificationHandler;
 import client.websocket.WebSocketFacade;
-import com.google.gson.Gson;
+import serialization.ChessGson;
 import exception.ResponseException;
 import model.Game;
 import model.User;
@@ -25,6 +28,7 @@ import static client.Repl.printPrompt;
 
 
 public class ChessClient implements NotificationHandler {
+    private static final long HINT_MILLIS = 1000;
     private final ServerFacade server;
     private String authToken = null;
     private WebSocketFacade webSocketFacade;
@@ -63,6 +67,7 @@ public class ChessClient implements NotificationHandler {
                     case "listgames" -> listGames();
                     case "playgame" -> playGame(params);
                     case "observegame" -> observeGame(params);
+                    case "addbot" -> addBot(params);
                     case "quit" -> "quit";
                     default -> help();
                 };
@@ -73,6 +78,7 @@ public class ChessClient implements NotificationHandler {
                     case "leave" -> leaveGame();
                     case "resign" -> resign();
                     case "highlightmoves" -> highlightLegalMoves();
+                    case "hint" -> hint();
                     default -> help();
                 };
             } else if (state == State.OBSERVING) {
@@ -111,7 +117,7 @@ public class ChessClient implements NotificationHandler {
         int col = colChar - 'a' + 1;
         int row = Character.getNumericValue(rowChar);
 
-        ChessPosition position = new ChessPosition(row, col);
+        ChessPosition position = ChessPosition.of(row, col);
         ChessPiece piece = currentGame.game().getBoard().getPiece(position);
 
         if (piece == null) {
@@ -134,6 +140,24 @@ public class ChessClient implements NotificationHandler {
         return validMovesString.toString();
     }
 
+    private String hint() {
+        ChessGame game = currentGame.game();
+        if (Boolean.TRUE.equals(currentGame.gameOver()) || game.getStatus().isGameOver()) {
+            return "The game is over, there is nothing to suggest.";
+        }
+        if (!game.getTeamTurn().name().equals(playerColor)) {
+            return "It's not your turn.";
+        }
+
+        SearchResult result = new Search(game).search(SearchLimits.time(HINT_MILLIS));
+        ChessMove move = result.bestChessMove();
+        String hint = "Suggested move: " + String.valueOf(formatMove(move));
+        if (move.getPromotionPiece() != null) {
+            hint += ", promoting to " + move.getPromotionPiece().name().toLowerCase();
+        }
+        return hint + " (" + result.formatScore() + ")";
+    }
+
     private char[] formatMove(ChessMove move) {
         String moveString = positionToString(move.getStartPosition()) + " to " + positionToString(move.getEndPosition());
         return moveString.toCharArray();
@@ -212,8 +236,8 @@ public class ChessClient implements NotificationHandler {
             int endCol = (endColChar - 'a') + 1;
             int endRow = (Character.getNumericValue(endRowChar) - 1) + 1;
 
-            ChessPosition startPosition = new ChessPosition(startRow, startCol);
-            ChessPosition endPosition = new ChessPosition(endRow, endCol);
+            ChessPosition startPosition = ChessPosition.of(startRow, startCol);
+            ChessPosition endPosition = ChessPosition.of(endRow, endCol);
 
             ChessPiece.PieceType promotionPiece = null;
             if (userInputArray.length == 3) {
@@ -416,6 +440,27 @@ public class ChessClient implements NotificationHandler {
         return String.format("Joined game %d as player %s.", gameId, playerColor);
     }
 
+    public String addBot(String... params) throws ResponseException {
+        assertSignedIn();
+        if (gameIndexMap.isEmpty()) {
+            return "Please use the 'listgames' command before selecting a game.";
+        }
+        if (params.length != 2) {
+            return "addbot <white|black> <game number>";
+        }
+
+        var botColor = params[0].toUpperCase();
+        if (!botColor.equals("WHITE") && !botColor.equals("BLACK")) {
+            throw new ResponseException(400, "Error: Must be white or black");
+        }
+        Integer gameId = gameIndexMap.get(Integer.parseInt(params[1]));
+        if (gameId == null) {
+            return "Invalid game number.";
+        }
+
+        String botName = server.addBot(botColor, gameId);
+        return String.format("%s joined game %d as player %s.", botName, gameId, botColor);
+    }
 
     public String help() {
         if (state == State.PRELOGIN) {
@@ -434,6 +479,7 @@ public class ChessClient implements NotificationHandler {
                     makemove - to make move in chess
                     resign -  to forfeit the game
                     highlightmoves - to highlight all legal moves
+                    hint - to get a suggested move
                     help - to help with possible commands
                     quit - to quit playing chess
                     """;
@@ -453,6 +499,7 @@ public class ChessClient implements NotificationHandler {
                 listgames - to list available games
                 playgame <WHITE or BLACK> <game number> - to join a game as a player
                 observegame <game number> - to observe a game
+                addbot <WHITE or BLACK> <game number> - to seat a computer player in a game
                 help - to display available commands
                 quit - to exit the program
                 """;
@@ -469,16 +516,16 @@ public class ChessClient implements NotificationHandler {
 
         try {
             System.out.println();
-            switch (new Gson().fromJson(message, ServerMessage.class).getServerMessageType()) {
+            switch (ChessGson.get().fromJson(message, ServerMessage.class).getServerMessageType()) {
                 case LOAD_GAME:
-                    this.currentGame = new Gson().fromJson(message, LoadGameMessage.class).getGame();
+                    this.currentGame = ChessGson.get().fromJson(message, LoadGameMessage.class).getGame();
                     this.redrawBoard();
                     break;
                 case ERROR:
-                    System.out.println("Error: " + new Gson().fromJson(message, ErrorMessage.class).getErrorMessage());
+                    System.out.println("Error: " + ChessGson.get().fromJson(message, ErrorMessage.class).getErrorMessage());
                     break;
                 case NOTIFICATION:
-                    System.out.println("Notification: " + new Gson().fromJson(message, NotificationMessage.class).getNotificationMessage());
+                    System.out.println("Notification: " + ChessGson.get().fromJson(message, NotificationMessage.class).getNotificationMessage());
                     break;
                 default:
                     System.out.println("Unknown message received in handleServerMessage in ChessClient.");
@@ -2,7 +2,7 @@ package client.websocket;
 
 import chess.ChessMove;
 import client.ChessClient;
-import com.google.gson.Gson;
+import serialization.ChessGson;
 import exception.ResponseException;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
@@ -50,7 +50,7 @@ public class WebSocketFacade extends Endpoint {
     public void connect(String authToken, int gameId, String userName) throws ResponseException {
         try {
             var userGameCommand = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId);
-            this.session.getBasicRemote().sendText(new Gson().toJson(userGameCommand));
+            this.session.getBasicRemote().sendText(ChessGson.get().toJson(userGameCommand));
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -59,7 +59,7 @@ public class WebSocketFacade extends Endpoint {
     public void makeMove(ChessMove move, String authToken, int gameId, String userName) throws ResponseException {
         try {
             var userGameCommand = new MakeMoveCommand(move, authToken, gameId);
-            this.session.getBasicRemote().sendText(new Gson().toJson(userGameCommand));
+            this.session.getBasicRemote().sendText(ChessGson.get().toJson(userGameCommand));
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -67,7 +67,7 @@ public class WebSocketFacade extends Endpoint {
     public void leave(String authToken, int gameId, String userName) throws ResponseException {
         try {
             var userGameCommand = new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameId);
-            this.session.getBasicRemote().sendText(new Gson().toJson(userGameCommand));
+            this.session.getBasicRemote().sendText(ChessGson.get().toJson(userGameCommand));
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -75,7 +75,7 @@ public class WebSocketFacade extends Endpoint {
     public void resign(String authToken, int gameId, String userName) throws ResponseException {
         try {
             var userGameCommand = new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameId);
-            this.session.getBasicRemote().sendText(new Gson().toJson(userGameCommand));
+            this.session.getBasicRemote().sendText(ChessGson.get().toJson(userGameCommand));
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -78,7 +78,7 @@ public class DrawChessBoard {
         int actualCol = isBlackPerspective ? BOARD_SIZE_IN_SQUARES - col - 1 : col;
         int actualRow = isBlackPerspective ? row : BOARD_SIZE_IN_SQUARES - row - 1;
 
-        ChessPosition position = new ChessPosition(actualRow + 1, actualCol + 1);
+        ChessPosition position = ChessPosition.of(actualRow + 1, actualCol + 1);
         ChessPiece piece = board.getPiece(position);
 
         if (isHighlighted(position, highlights)) {
@@ -8,7 +8,10 @@ public class Main {
         var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
 
-        Server server = new Server();
+        // optional: how many game updates, and how many milliseconds, can wait to be saved
+        Server server = (args.length >= 2)
+                ? new Server(Integer.parseInt(args[0]), Long.parseLong(args[1]))
+                : new Server();
 
         server.run(8081);
 
@@ -12,5 +12,16 @@ public interface GameDAO {
     Collection<Game> listGames() throws ResponseException;
     void updateGame(Game game) throws ResponseException;
 
+    /**
+     * Tells the DAO a game is being played, so it can keep it close at hand
+     */
+    default void activate(int gameID) throws ResponseException {
+    }
+
+    /**
+     * Tells the DAO a game is no longer being played
+     */
+    default void deactivate(int gameID) throws ResponseException {
+    }
 
 }
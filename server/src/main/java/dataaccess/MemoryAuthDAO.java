@@ -3,10 +3,10 @@ package dataaccess;
 import model.Auth;
 import model.User;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryAuthDAO implements AuthDAO {
-    private final HashMap<String, Auth> authTokens = new HashMap<>();
+    private final ConcurrentHashMap<String, Auth> authTokens = new ConcurrentHashMap<>();
 
     public Auth createAuth(Auth auth) {
         Auth newAuth = new Auth(auth.authToken(), auth.username());
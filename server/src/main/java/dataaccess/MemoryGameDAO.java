@@ -3,18 +3,18 @@ package dataaccess;
 import model.Game;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryGameDAO implements GameDAO {
     private int nextId = 1;
-    final private HashMap<Integer, Game> games = new HashMap<>();
+    final private ConcurrentHashMap<Integer, Game> games = new ConcurrentHashMap<>();
 
-    public void clear() {
+    public synchronized void clear() {
         games.clear();
         nextId = 1;
     }
 
-    public Game createGame(Game game) {
+    public synchronized Game createGame(Game game) {
         game = new Game(nextId++, game.whiteUsername(), game.blackUsername(), game.gameName(), game.game(), game.gameOver());
         games.put(game.gameID(), game);
         return game;
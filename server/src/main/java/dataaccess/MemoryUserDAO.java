@@ -1,6 +1,6 @@
 package dataaccess;
 import model.User;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryUserDAO implements UserDAO {
     @Override
@@ -10,7 +10,7 @@ public class MemoryUserDAO implements UserDAO {
                 '}';
     }
 
-    final private HashMap<String, User> users = new HashMap<>();
+    final private ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
 
     public User createUser(User user) {
 
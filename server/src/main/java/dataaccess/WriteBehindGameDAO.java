@@ -0,0 +1,199 @@
+package dataaccess;
+
+import chess.ChessGame;
+import exception.ResponseException;
+import model.Game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the games being played in memory, in front of another GameDAO that stores
+ * them. While a game is active its in-memory copy is the real one: reads come from
+ * it, and updates change it and are written to the store later, in the background.
+ * Callers are only ever given copies of it, and it is only changed by updateGame, so
+ * a caller changing the game it was handed can't change it for anyone else.
+ * Updates to a game waiting to be written replace each other, so a burst of moves
+ * costs one write.
+ * <p>
+ * Waiting updates are written every flushMillis, or sooner once flushUpdates of them
+ * have piled up, when a game is deactivated, and on close. Games that aren't active
+ * are read from and written to the store directly.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+    public static final int DEFAULT_FLUSH_UPDATES = 64;
+    public static final long DEFAULT_FLUSH_MILLIS = 1000;
+
+    private final GameDAO store;
+    private final int flushUpdates;
+    private final ConcurrentHashMap<Integer, Game> active = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Game> unwritten = new ConcurrentHashMap<>();
+    private final AtomicInteger unwrittenUpdates = new AtomicInteger();
+    private final ScheduledExecutorService flusher;
+    private final Object storeLock = new Object();
+
+    /**
+     * @param flushUpdates how many updates can wait before they are all written
+     * @param flushMillis  how long an update can wait to be written
+     */
+    public WriteBehindGameDAO(GameDAO store, int flushUpdates, long flushMillis) {
+        if (flushUpdates < 1 || flushMillis < 1) {
+            throw new IllegalArgumentException("Flush limits must be positive: " + flushUpdates + ", " + flushMillis);
+        }
+        this.store = store;
+        this.flushUpdates = flushUpdates;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public WriteBehindGameDAO(GameDAO store) {
+        this(store, DEFAULT_FLUSH_UPDATES, DEFAULT_FLUSH_MILLIS);
+    }
+
+    @Override
+    public void clear() throws ResponseException {
+        synchronized (storeLock) {
+            active.clear();
+            unwritten.clear();
+            unwrittenUpdates.set(0);
+            store.clear();
+        }
+    }
+
+    @Override
+    public Game createGame(Game game) throws ResponseException {
+        return store.createGame(game);
+    }
+
+    @Override
+    public Game getGame(int gameID) throws ResponseException {
+        Game game = active.get(gameID);
+        return (game != null) ? copy(game) : store.getGame(gameID);
+    }
+
+    @Override
+    public Collection<Game> listGames() throws ResponseException {
+        Collection<Game> stored = store.listGames();
+        List<Game> games = new ArrayList<>(stored.size());
+        for (Game game : stored) {
+            Game held = active.get(game.gameID());
+            games.add((held != null) ? copy(held) : game);
+        }
+        return games;
+    }
+
+    @Override
+    public void updateGame(Game game) throws ResponseException {
+        // the caller can go on changing the game it passed, so hold and write a copy
+        Game held = copy(game);
+        if (active.computeIfPresent(game.gameID(), (gameId, current) -> held) == null) {
+            store.updateGame(game);
+            return;
+        }
+        unwritten.put(game.gameID(), held);
+        if (unwrittenUpdates.incrementAndGet() == flushUpdates && !flusher.isShutdown()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private static Game copy(Game game) {
+        return new Game(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+                new ChessGame(game.game()), game.gameOver());
+    }
+
+    /**
+     * Loads a game into memory, if it isn't already, to be kept there until it is
+     * deactivated
+     */
+    @Override
+    public void activate(int gameID) throws ResponseException {
+        if (!active.containsKey(gameID)) {
+            Game game = store.getGame(gameID);
+            if (game != null) {
+                active.putIfAbsent(gameID, game);
+            }
+        }
+    }
+
+    /**
+     * Writes a game's waiting update, if it has one, and drops it from memory
+     */
+    @Override
+    public void deactivate(int gameID) throws ResponseException {
+        synchronized (storeLock) {
+            Game game = unwritten.remove(gameID);
+            if (game != null) {
+                store.updateGame(game);
+            }
+            active.remove(gameID);
+        }
+    }
+
+    /**
+     * Writes every waiting update to the store
+     */
+    public void flush() throws ResponseException {
+        synchronized (storeLock) {
+            unwrittenUpdates.set(0);
+            for (Integer gameId : unwritten.keySet()) {
+                Game game = unwritten.remove(gameId);
+                if (game == null) {
+                    continue;
+                }
+                try {
+                    store.updateGame(game);
+                } catch (ResponseException e) {
+                    // keep it for the next flush, unless a newer update has come in
+                    unwritten.putIfAbsent(gameId, game);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (ResponseException e) {
+            System.out.println("Unable to save games: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return how many games are held in memory
+     */
+    public int getActiveGames() {
+        return active.size();
+    }
+
+    /**
+     * @return how many games have updates waiting to be written
+     */
+    public int getUnwrittenGames() {
+        return unwritten.size();
+    }
+
+    /**
+     * Stops the background writes and writes whatever is still waiting
+     */
+    @Override
+    public void close() throws ResponseException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -1,7 +1,7 @@
 package dataaccess.mysql;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import serialization.ChessGson;
 import dataaccess.DatabaseManager;
 import dataaccess.GameDAO;
 import exception.ResponseException;
@@ -22,7 +22,7 @@ public class MySQLGameDAO extends MySQLParentDAO implements GameDAO {
     @Override
     public Game createGame(Game game) throws ResponseException {
         String statement = "INSERT INTO games (gameName, whiteUsername, blackUsername, gameJson, gameOver) VALUES (?, ?, ?, ?, ?)";
-        String gameJson = new Gson().toJson(game.game());
+        String gameJson = ChessGson.get().toJson(game.game());
         int gameID = executeUpdate(statement, game.gameName(), game.whiteUsername(), game.blackUsername(), gameJson, 0);
         return getGame(gameID);
     }
@@ -52,7 +52,7 @@ public class MySQLGameDAO extends MySQLParentDAO implements GameDAO {
         String gameName = rs.getString("gameName");
         String gameJson = rs.getString("gameJson");
         Boolean gameOver = rs.getBoolean("gameOver");
-        var game = new Gson().fromJson(gameJson, ChessGame.class);
+        var game = ChessGson.get().fromJson(gameJson, ChessGame.class);
         return new Game(gameID, whiteUsername, blackUsername, gameName, game, gameOver);
     }
 
@@ -77,7 +77,7 @@ public class MySQLGameDAO extends MySQLParentDAO implements GameDAO {
     @Override
     public void updateGame(Game game) throws ResponseException {
         String statement = "UPDATE games SET gameName = ?, whiteUsername = ?, blackUsername = ?, gameJson = ?, gameOver = ? WHERE gameID = ?";
-        String gameJson = new Gson().toJson(game.game());
+        String gameJson = ChessGson.get().toJson(game.game());
         executeUpdate(statement, game.gameName(), game.whiteUsername(), game.blackUsername(), gameJson, game.gameOver() ? 1 : 0, game.gameID());
     }
 
@@ -1,7 +1,7 @@
 package server;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import serialization.ChessGson;
 import dataaccess.*;
 import dataaccess.mysql.MySQLAuthDAO;
 import dataaccess.mysql.MySQLGameDAO;
@@ -10,10 +10,12 @@ import exception.ResponseException;
 import model.Game;
 import model.User;
 import requests.CreateRequest;
+import results.BotResult;
 import results.CreateResult;
 import results.ListResult;
 import results.LoginResult;
 import results.RegisterResult;
+import server.bot.BotService;
 import server.websocket.WebSocketHandler;
 import service.*;
 import requests.LoginRequest;
@@ -23,11 +25,24 @@ import spark.*;
 public class Server {
     private final UserDAO userDAO = new MySQLUserDAO();
     private final AuthDAO authDAO = new MySQLAuthDAO();
-    private final GameDAO gameDAO = new MySQLGameDAO();
+    private final WriteBehindGameDAO gameDAO;
     private final WebSocketHandler webSocketHandler;
+    private final BotService botService;
+
+    /**
+     * @param flushUpdates how many updates to games being played can wait before they
+     *                     are all saved
+     * @param flushMillis  how long an update to a game being played can wait to be
+     *                     saved, which is how much play a crash can lose
+     */
+    public Server(int flushUpdates, long flushMillis) {
+        this.gameDAO = new WriteBehindGameDAO(new MySQLGameDAO(), flushUpdates, flushMillis);
+        this.webSocketHandler = new WebSocketHandler(gameDAO, authDAO);
+        this.botService = new BotService(userDAO, authDAO, gameDAO, webSocketHandler);
+    }
 
     public Server() {
-        this.webSocketHandler = new WebSocketHandler(gameDAO, authDAO);
+        this(WriteBehindGameDAO.DEFAULT_FLUSH_UPDATES, WriteBehindGameDAO.DEFAULT_FLUSH_MILLIS);
     }
 
     public int run(int desiredPort) {
@@ -51,6 +66,7 @@ public class Server {
         Spark.get("/game", this::listGames);
         Spark.post("/game", this::createGame);
         Spark.put("/game", this::joinGame);
+        Spark.post("/game/bot", this::addBot);
 
 
         Spark.awaitInitialization();
@@ -60,9 +76,10 @@ public class Server {
     private Object joinGame(Request req, Response res) {
         String authToken = req.headers("authorization");
         try {
-            JoinRequest joinRequest = new Gson().fromJson(req.body(), JoinRequest.class);
+            JoinRequest joinRequest = ChessGson.get().fromJson(req.body(), JoinRequest.class);
             JoinService joinService = new JoinService(authDAO, gameDAO);
-            joinService.joinGame(authToken, joinRequest.playerColor(), joinRequest.gameID());
+            webSocketHandler.update(joinRequest.gameID(),
+                    () -> joinService.joinGame(authToken, joinRequest.playerColor(), joinRequest.gameID()));
             res.status(200);
             return "";
         } catch (ResponseException exception) {
@@ -74,15 +91,31 @@ public class Server {
         }
     }
 
+    private Object addBot(Request req, Response res) {
+        String authToken = req.headers("authorization");
+        try {
+            JoinRequest joinRequest = ChessGson.get().fromJson(req.body(), JoinRequest.class);
+            String botName = botService.addBot(authToken, joinRequest.playerColor(), joinRequest.gameID());
+            res.status(200);
+            return ChessGson.get().toJson(new BotResult(botName));
+        } catch (ResponseException exception) {
+            res.status(exception.statusCode());
+            return exception.toJson();
+        } catch (Exception exception) {
+            res.status(500);
+            return new ResponseException(500, "Error: " + exception.getMessage()).toJson();
+        }
+    }
+
     private Object createGame(Request req, Response res) {
         String authToken = req.headers("authorization");
         try {
-            CreateRequest createRequest = new Gson().fromJson(req.body(), CreateRequest.class);
+            CreateRequest createRequest = ChessGson.get().fromJson(req.body(), CreateRequest.class);
             Game game = new Game(100, null, null, createRequest.gameName(), new ChessGame(), false);
             CreateService createService = new CreateService(authDAO, gameDAO);
             CreateResult gameResult = createService.createGame(authToken, game);
             res.status(200);
-            return new Gson().toJson(gameResult);
+            return ChessGson.get().toJson(gameResult);
         } catch (ResponseException exception) {
             res.status(exception.statusCode());
             return exception.toJson();
@@ -98,7 +131,7 @@ public class Server {
             ListService listService = new ListService(authDAO, gameDAO);
             ListResult listResult = listService.listGames(authToken);
             res.status(200);
-            return new Gson().toJson(listResult);
+            return ChessGson.get().toJson(listResult);
         } catch (ResponseException exception) {
             res.status(exception.statusCode());
             return exception.toJson();
@@ -127,11 +160,11 @@ public class Server {
 
     private Object loginUser(Request req, Response res) {
         try {
-            LoginRequest loginRequest = new Gson().fromJson(req.body(), LoginRequest.class);
+            LoginRequest loginRequest = ChessGson.get().fromJson(req.body(), LoginRequest.class);
             LoginService loginService = new LoginService(userDAO, authDAO);
             LoginResult loginResult = loginService.login(loginRequest);
             res.status(200);
-            return new Gson().toJson(loginResult);
+            return ChessGson.get().toJson(loginResult);
         } catch (ResponseException exception) {
             res.status(exception.statusCode());
             return exception.toJson();
@@ -142,17 +175,26 @@ public class Server {
     }
 
     public void stop() {
+        botService.close();
         Spark.stop();
         Spark.awaitStop();
+        // sessions closing as Spark stops can still queue work for their games, so
+        // the handler is closed after, and the games are written out last
+        webSocketHandler.close();
+        try {
+            gameDAO.close();
+        } catch (ResponseException exception) {
+            System.out.println("Unable to save games on shutdown: " + exception.getMessage());
+        }
     }
 
     private Object registerUser(Request req, Response res) {
         try {
-            var user = new Gson().fromJson(req.body(), User.class);
+            var user = ChessGson.get().fromJson(req.body(), User.class);
             RegisterService registerService = new RegisterService(userDAO, authDAO);
             RegisterResult registerResult = registerService.register(user);
             res.status(200);
-            return new Gson().toJson(registerResult);
+            return ChessGson.get().toJson(registerResult);
         } catch (ResponseException exception) {
             res.status(exception.statusCode());
             return exception.toJson();
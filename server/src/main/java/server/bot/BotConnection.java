@@ -0,0 +1,201 @@
+package server.bot;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import exception.ResponseException;
+import model.Game;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import serialization.ChessGson;
+import server.websocket.Connection;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A bot player's connection to its game. It is registered with the ConnectionManager
+ * like a player's WebSocket, but messages sent to it are handled in-process: on a
+ * LOAD_GAME where it is the bot's turn, a search for the move is queued on the
+ * BotService's executor, and the move goes back through WebSocketHandler as a
+ * MAKE_MOVE command, exactly as a client's would.
+ * <p>
+ * A bot has at most one task queued or running. A LOAD_GAME that arrives while it is
+ * busy replaces the game the task will look at next, so none is lost.
+ * <p>
+ * A bot stops when its game is over, when the last person leaves the game, or when it
+ * can't move. It leaves an unfinished game it stops in, and resigns one it can't
+ * move in, so neither its seat nor its opponent is left waiting.
+ */
+public class BotConnection extends Connection {
+    private final BotService service;
+    private final String authToken;
+    private final ChessGame.TeamColor color;
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile Game latest;
+    private volatile boolean active = true;
+    private volatile long searchNanos;
+    private volatile long submittedAt;
+
+    BotConnection(BotService service, String userName, String authToken, int gameId, ChessGame.TeamColor color) {
+        super(userName, null, gameId);
+        this.service = service;
+        this.authToken = authToken;
+        this.color = color;
+    }
+
+    public ChessGame.TeamColor getColor() {
+        return color;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return active;
+    }
+
+    @Override
+    public boolean isAutomated() {
+        return true;
+    }
+
+    /**
+     * Leaves the game, since nobody is left to play or watch it
+     */
+    @Override
+    public void onAbandoned() {
+        quit(UserGameCommand.CommandType.LEAVE);
+    }
+
+    /**
+     * Handles a message as it is written. The connection writes one message at a time,
+     * so this never runs on two threads at once.
+     */
+    @Override
+    protected void write(String msg, WriteCallback callback) {
+        if (active) {
+            receive(msg);
+        }
+        callback.writeSuccess();
+    }
+
+    private void receive(String msg) {
+        ServerMessage message = ChessGson.get().fromJson(msg, ServerMessage.class);
+        switch (message.getServerMessageType()) {
+            case LOAD_GAME -> {
+                long submitted = submittedAt;
+                if (submitted != 0) {
+                    // the first LOAD_GAME after submitting a move is the one that applies it
+                    submittedAt = 0;
+                    service.recordMove(searchNanos, System.nanoTime() - submitted);
+                }
+                onLoadGame(ChessGson.get().fromJson(msg, LoadGameMessage.class).getGame());
+            }
+            // a resignation ends the game without a LOAD_GAME, so look at the stored game
+            case NOTIFICATION -> checkGameOver();
+            case ERROR -> {
+                // the only commands a bot sends are CONNECT and its moves, and it can't
+                // go on after either is refused
+                submittedAt = 0;
+                System.out.println("Bot " + userName + " was refused: "
+                        + ChessGson.get().fromJson(msg, ErrorMessage.class).getErrorMessage());
+                quit(UserGameCommand.CommandType.RESIGN);
+            }
+        }
+    }
+
+    void connect() throws IOException, ResponseException {
+        var command = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId);
+        service.getHandler().onMessage(this, ChessGson.get().toJson(command));
+    }
+
+    private void checkGameOver() {
+        try {
+            Game game = service.getGameDAO().getGame(gameId);
+            if (game == null || Boolean.TRUE.equals(game.gameOver())) {
+                finish();
+            }
+        } catch (ResponseException e) {
+            System.out.println("Bot " + userName + " couldn't read its game: " + e.getMessage());
+        }
+    }
+
+    private void onLoadGame(Game game) {
+        if (Boolean.TRUE.equals(game.gameOver())) {
+            finish();
+            return;
+        }
+        latest = game;
+        schedule();
+    }
+
+    private void schedule() {
+        if (busy.compareAndSet(false, true)) {
+            service.execute(this::play);
+        }
+    }
+
+    private void play() {
+        Game game = latest;
+        try {
+            if (active && game.game().getTeamTurn() == color && userName.equals(seatHolder(game))) {
+                long start = System.nanoTime();
+                ChessMove move = new Search(game.game(), service.getTable())
+                        .search(SearchLimits.time(service.getMoveMillis()))
+                        .bestChessMove();
+                long searched = System.nanoTime();
+                if (move != null) {
+                    var command = new MakeMoveCommand(move, authToken, gameId);
+                    searchNanos = searched - start;
+                    submittedAt = searched;
+                    service.getHandler().onMessage(this, ChessGson.get().toJson(command));
+                }
+            }
+        } catch (IOException | ResponseException | RuntimeException e) {
+            System.out.println("Bot " + userName + " failed to move: " + e.getMessage());
+            quit(UserGameCommand.CommandType.RESIGN);
+        } finally {
+            busy.set(false);
+            // a LOAD_GAME that came in while this ran found the bot busy, so pick it up now
+            if (latest != game) {
+                schedule();
+            }
+        }
+    }
+
+    private String seatHolder(Game game) {
+        return (color == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
+    }
+
+    /**
+     * Sends a LEAVE or RESIGN for the bot, then stops it. The command is queued to the
+     * game's actor ahead of the bot's removal, so it is still handled.
+     */
+    private void quit(UserGameCommand.CommandType type) {
+        if (!active) {
+            return;
+        }
+        try {
+            var command = new UserGameCommand(type, authToken, gameId);
+            service.getHandler().onMessage(this, ChessGson.get().toJson(command));
+        } catch (IOException | ResponseException | RuntimeException e) {
+            System.out.println("Bot " + userName + " couldn't " + type.name().toLowerCase() + ": " + e.getMessage());
+        }
+        finish();
+    }
+
+    /**
+     * Stops the bot and takes it out of its game, so the game's room can close
+     */
+    void finish() {
+        if (active) {
+            active = false;
+            service.getHandler().disconnect(this);
+            service.finished(this);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package server.bot;
+
+import chess.ChessGame;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import dataaccess.MemoryUserDAO;
+import exception.ResponseException;
+import model.Game;
+import model.User;
+import server.websocket.WebSocketHandler;
+import service.RegisterService;
+
+/**
+ * Drives the move pipeline with bot-against-bot games, in memory, and reports how fast
+ * moves go through it. Finished games are replaced so the number being played stays
+ * the same for the whole run.
+ * <p>
+ * Usage: BotLoadGenerator [games] [seconds] [move millis] [threads]
+ */
+public class BotLoadGenerator {
+    public static void main(String[] args) throws Exception {
+        int games = (args.length > 0) ? Integer.parseInt(args[0]) : 16;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        long moveMillis = (args.length > 2) ? Long.parseLong(args[2]) : 10;
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        var userDAO = new MemoryUserDAO();
+        var authDAO = new MemoryAuthDAO();
+        var gameDAO = new MemoryGameDAO();
+        var handler = new WebSocketHandler(gameDAO, authDAO);
+        String authToken = new RegisterService(userDAO, authDAO)
+                .register(new User("load", "load", "load@example.com")).authToken();
+
+        System.out.printf("%d games, %d ms a move, %d threads, for %d s%n", games, moveMillis, threads, seconds);
+        try (var botService = new BotService(userDAO, authDAO, gameDAO, handler, threads, 2 * games, moveMillis)) {
+            long start = System.nanoTime();
+            long end = start + seconds * 1_000_000_000L;
+            long lastMoves = 0;
+            while (System.nanoTime() < end) {
+                while (botService.getBots().size() + 2 <= 2 * games) {
+                    startGame(botService, gameDAO, authToken);
+                }
+                Thread.sleep(1000);
+                long moves = botService.getMovesPlayed();
+                System.out.printf("%6d moves/s, search %.1f ms, submit %.3f ms, %d bots finished%n",
+                        moves - lastMoves, botService.getMeanSearchMillis(), botService.getMeanSubmitMillis(),
+                        botService.getBotsFinished());
+                lastMoves = moves;
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Total: %d moves in %.1f s, %.0f moves/s, %d games finished%n",
+                    botService.getMovesPlayed(), elapsed, botService.getMovesPlayed() / elapsed,
+                    botService.getBotsFinished() / 2);
+        }
+    }
+
+    private static void startGame(BotService botService, MemoryGameDAO gameDAO, String authToken)
+            throws ResponseException {
+        int gameId = gameDAO.createGame(new Game(0, null, null, "load", new ChessGame())).gameID();
+        botService.addBot(authToken, "BLACK", gameId);
+        botService.addBot(authToken, "WHITE", gameId);
+    }
+}
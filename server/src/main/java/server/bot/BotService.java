@@ -0,0 +1,231 @@
+package server.bot;
+
+import chess.ChessGame;
+import chess.engine.TranspositionTable;
+import dataaccess.AuthDAO;
+import dataaccess.GameDAO;
+import dataaccess.UserDAO;
+import exception.ResponseException;
+import model.Game;
+import model.User;
+import results.RegisterResult;
+import server.websocket.WebSocketHandler;
+import service.JoinService;
+import service.RegisterService;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs computer players. Bots play as ordinary users: each color has an account,
+ * registered with RegisterService the first time a bot of that color is needed and
+ * shared by every bot of that color after. A bot takes its seat with JoinService and
+ * connects and moves through WebSocketHandler, so everything a human's game goes
+ * through, a bot's does too.
+ * <p>
+ * Bots think on a fixed pool of threads, for a fixed time per move, and share one
+ * transposition table. Each bot has at most one task queued at a time, so the queue
+ * is bounded by the number of bots, which is capped.
+ */
+public class BotService implements AutoCloseable {
+    public static final long DEFAULT_MOVE_MILLIS = 500;
+    public static final int DEFAULT_MAX_BOTS = 64;
+    private static final int TABLE_SIZE_MB = 64;
+
+    private final UserDAO userDAO;
+    private final AuthDAO authDAO;
+    private final GameDAO gameDAO;
+    private final WebSocketHandler handler;
+    private final long moveMillis;
+    private final TranspositionTable table = new TranspositionTable(TABLE_SIZE_MB);
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+    private final Set<BotConnection> bots = ConcurrentHashMap.newKeySet();
+    private final Map<ChessGame.TeamColor, Account> accounts = new EnumMap<>(ChessGame.TeamColor.class);
+    private final String accountId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final LongAdder movesPlayed = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder submitNanos = new LongAdder();
+    private final LongAdder botsFinished = new LongAdder();
+
+    private record Account(String username, String authToken) {
+    }
+
+    /**
+     * @param threads    how many bots can think at once
+     * @param maxBots    how many bots can be playing at once
+     * @param moveMillis how long a bot thinks about each move
+     */
+    public BotService(UserDAO userDAO, AuthDAO authDAO, GameDAO gameDAO, WebSocketHandler handler,
+                      int threads, int maxBots, long moveMillis) {
+        this.userDAO = userDAO;
+        this.authDAO = authDAO;
+        this.gameDAO = gameDAO;
+        this.handler = handler;
+        this.moveMillis = moveMillis;
+        this.slots = new Semaphore(maxBots);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxBots), runnable -> {
+            Thread thread = new Thread(runnable, "bot-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BotService(UserDAO userDAO, AuthDAO authDAO, GameDAO gameDAO, WebSocketHandler handler) {
+        this(userDAO, authDAO, gameDAO, handler, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_BOTS,
+                DEFAULT_MOVE_MILLIS);
+    }
+
+    /**
+     * Seats a new bot in a game and connects it, on behalf of a signed in user
+     *
+     * @param playerColor WHITE or BLACK
+     * @return the bot's username
+     */
+    public String addBot(String authToken, String playerColor, int gameId) throws ResponseException {
+        if (authDAO.getAuth(authToken) == null) {
+            throw new ResponseException(401, "Error: unauthorized");
+        }
+        if (playerColor == null || !(playerColor.equals("WHITE") || playerColor.equals("BLACK"))) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        Game game = gameDAO.getGame(gameId);
+        if (game == null) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        // checked again by JoinService, but this way a taken seat doesn't use up a slot first
+        String seated = playerColor.equals("WHITE") ? game.whiteUsername() : game.blackUsername();
+        if (seated != null) {
+            throw new ResponseException(403, "Error: already taken");
+        }
+        if (!slots.tryAcquire()) {
+            throw new ResponseException(503, "Error: too many bots are playing");
+        }
+        try {
+            ChessGame.TeamColor color = ChessGame.TeamColor.valueOf(playerColor);
+            Account account = account(color);
+            handler.update(gameId, () -> new JoinService(authDAO, gameDAO)
+                    .joinGame(account.authToken(), playerColor, gameId));
+
+            BotConnection bot = new BotConnection(this, account.username(), account.authToken(), gameId, color);
+            bots.add(bot);
+            bot.connect();
+            return account.username();
+        } catch (ResponseException | IOException | RuntimeException e) {
+            slots.release();
+            if (e instanceof ResponseException responseException) {
+                throw responseException;
+            }
+            throw new ResponseException(500, "Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the account bots of a color play as, registering it if it hasn't been,
+     * or if it has been cleared from the database since
+     */
+    private synchronized Account account(ChessGame.TeamColor color) throws ResponseException {
+        Account account = accounts.get(color);
+        if (account == null || authDAO.getAuth(account.authToken()) == null) {
+            String username = "bot-" + accountId + "-" + color.name().toLowerCase();
+            User user = new User(username, UUID.randomUUID().toString(), username + "@bots.invalid");
+            RegisterResult registered = new RegisterService(userDAO, authDAO).register(user);
+            account = new Account(username, registered.authToken());
+            accounts.put(color, account);
+        }
+        return account;
+    }
+
+    void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // only after close, when the bots have all been stopped
+        }
+    }
+
+    void finished(BotConnection bot) {
+        if (bots.remove(bot)) {
+            slots.release();
+            botsFinished.increment();
+        }
+    }
+
+    void recordMove(long searchTime, long submitTime) {
+        movesPlayed.increment();
+        searchNanos.add(searchTime);
+        submitNanos.add(submitTime);
+    }
+
+    WebSocketHandler getHandler() {
+        return handler;
+    }
+
+    GameDAO getGameDAO() {
+        return gameDAO;
+    }
+
+    TranspositionTable getTable() {
+        return table;
+    }
+
+    public long getMoveMillis() {
+        return moveMillis;
+    }
+
+    public Collection<BotConnection> getBots() {
+        return List.copyOf(bots);
+    }
+
+    public long getMovesPlayed() {
+        return movesPlayed.sum();
+    }
+
+    /**
+     * @return how many bots have stopped because their game ended
+     */
+    public long getBotsFinished() {
+        return botsFinished.sum();
+    }
+
+    /**
+     * @return the mean time from a bot choosing its move to the bot being sent the
+     * LOAD_GAME for it, in milliseconds
+     */
+    public double getMeanSubmitMillis() {
+        long moves = movesPlayed.sum();
+        return (moves == 0) ? 0 : submitNanos.sum() / 1e6 / moves;
+    }
+
+    public double getMeanSearchMillis() {
+        long moves = movesPlayed.sum();
+        return (moves == 0) ? 0 : searchNanos.sum() / 1e6 / moves;
+    }
+
+    /**
+     * Stops every bot and the threads they think on
+     */
+    @Override
+    public void close() {
+        for (BotConnection bot : getBots()) {
+            bot.finish();
+        }
+        executor.shutdownNow();
+    }
+}
@@ -1,21 +1,229 @@
 package server.websocket;
 
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
 
+/**
+ * One user's connection to one game. Sending never blocks: messages go into a queue
+ * and are written one at a time with Jetty's asynchronous sendString, each write
+ * starting when the last one completes. A client that reads slowly only fills its
+ * own queue, so it can't hold up the thread that is broadcasting to everyone else.
+ * <p>
+ * The queue is bounded, and what happens when it fills is set by an
+ * {@link OverflowPolicy}.
+ */
 public class Connection {
+    public static final int DEFAULT_QUEUE_LIMIT = 32;
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.COALESCE;
+
+    /**
+     * What a connection does about a client that has fallen behind
+     */
+    public enum OverflowPolicy {
+        /**
+         * When the queue is full, throw away every LOAD_GAME but the newest. If that
+         * doesn't make room, disconnect.
+         */
+        DROP_STALE,
+        /**
+         * Keep at most one LOAD_GAME queued at any time, replacing it with each newer
+         * one, so a client that is behind only gets the latest board. If the queue
+         * still fills, disconnect.
+         */
+        COALESCE,
+        /**
+         * Disconnect as soon as the queue is full
+         */
+        DISCONNECT
+    }
+
+    private record Outbound(String msg, boolean snapshot) {
+    }
+
     public String userName;
     public Session session;
     public int gameId;
 
-    public Connection(String userName, Session session, int gameId) {
+    private final int queueLimit;
+    private final OverflowPolicy overflowPolicy;
+    private final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+    private boolean writing;
+    private volatile boolean closed;
+    private long dropped;
+
+    private final WriteCallback onWritten = new WriteCallback() {
+        @Override
+        public void writeFailed(Throwable cause) {
+            close();
+        }
+
+        @Override
+        public void writeSuccess() {
+            writeNext();
+        }
+    };
+
+    public Connection(String userName, Session session, int gameId, int queueLimit, OverflowPolicy overflowPolicy) {
+        if (queueLimit < 1) {
+            throw new IllegalArgumentException("The queue limit must be positive: " + queueLimit);
+        }
         this.userName = userName;
         this.session = session;
         this.gameId = gameId;
+        this.queueLimit = queueLimit;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public Connection(String userName, Session session, int gameId) {
+        this(userName, session, gameId, DEFAULT_QUEUE_LIMIT, DEFAULT_OVERFLOW_POLICY);
+    }
+
+    public void send(String msg) {
+        send(msg, false);
+    }
+
+    /**
+     * Queues a message to be written once the ones before it have been
+     *
+     * @param snapshot whether the message is a LOAD_GAME, which any later LOAD_GAME
+     *                 makes out of date
+     */
+    public void send(String msg, boolean snapshot) {
+        boolean overflowed = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (snapshot && overflowPolicy == OverflowPolicy.COALESCE) {
+                dropSnapshots(false);
+            }
+            if (queue.size() >= queueLimit && !makeRoom(snapshot)) {
+                overflowed = true;
+                closed = true;
+                dropped += queue.size() + 1;
+                queue.clear();
+            } else {
+                queue.add(new Outbound(msg, snapshot));
+                if (writing) {
+                    return;
+                }
+                writing = true;
+            }
+        }
+        if (overflowed) {
+            disconnect(StatusCode.POLICY_VIOLATION, "Too many messages waiting to be sent");
+        } else {
+            writeNext();
+        }
+    }
+
+    private boolean makeRoom(boolean snapshot) {
+        if (overflowPolicy == OverflowPolicy.DROP_STALE) {
+            dropSnapshots(!snapshot);
+        }
+        return queue.size() < queueLimit;
+    }
+
+    /**
+     * Removes the queued LOAD_GAMEs, or all but the last of them
+     */
+    private void dropSnapshots(boolean keepLast) {
+        Outbound last = null;
+        if (keepLast) {
+            for (Outbound outbound : queue) {
+                if (outbound.snapshot()) {
+                    last = outbound;
+                }
+            }
+        }
+        Outbound keep = last;
+        int before = queue.size();
+        queue.removeIf(outbound -> outbound.snapshot() && outbound != keep);
+        dropped += before - queue.size();
+    }
+
+    private void writeNext() {
+        Outbound next;
+        synchronized (this) {
+            next = closed ? null : queue.poll();
+            if (next == null) {
+                writing = false;
+                return;
+            }
+        }
+        try {
+            write(next.msg(), onWritten);
+        } catch (RuntimeException e) {
+            // a session that is closing can refuse the write outright; treat it as a
+            // failed write rather than let it reach whoever is broadcasting
+            onWritten.writeFailed(e);
+        }
+    }
+
+    /**
+     * Writes one message. The callback must be told when the write completes, and
+     * the next message isn't written until it is.
+     */
+    protected void write(String msg, WriteCallback callback) {
+        session.getRemote().sendString(msg, callback);
+    }
+
+    /**
+     * @return whether this is an in-process player, such as a bot, rather than a
+     * person's client
+     */
+    public boolean isAutomated() {
+        return false;
+    }
+
+    /**
+     * Called when the last person's connection leaves this connection's game, so an
+     * in-process player can stop rather than wait for moves that won't come
+     */
+    public void onAbandoned() {
+    }
+
+    public boolean isOpen() {
+        return !closed && (session == null || session.isOpen());
+    }
+
+    /**
+     * Stops sending and drops anything still queued
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            writing = false;
+            dropped += queue.size();
+            queue.clear();
+        }
+        disconnect(StatusCode.NORMAL, null);
+    }
+
+    private void disconnect(int statusCode, String reason) {
+        if (session != null && session.isOpen()) {
+            try {
+                session.close(statusCode, reason);
+            } catch (RuntimeException e) {
+                // already going away
+            }
+        }
+    }
+
+    /**
+     * @return how many messages are waiting to be written
+     */
+    public synchronized int getQueued() {
+        return queue.size();
     }
 
-    public void send(String msg) throws IOException {
-        session.getRemote().sendString(msg);
+    /**
+     * @return how many messages were thrown away rather than written
+     */
+    public synchronized long getDropped() {
+        return dropped;
     }
-}
\ No newline at end of file
+}
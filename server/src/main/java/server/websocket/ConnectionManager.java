@@ -1,50 +1,206 @@
 package server.websocket;
 
-import com.google.gson.Gson;
+import serialization.ChessGson;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.messages.ServerMessage;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
+/**
+ * Tracks who is connected to which game. Connections are indexed three ways: by
+ * user and game for messages to one user, by game (the game's room) so a broadcast
+ * only visits that game's connections, and by WebSocket session so everything a
+ * closed session was connected to can be dropped at once.
+ * <p>
+ * Rooms are created by their first connection and removed with their last. When the
+ * last person leaves a room that still has automated players, such as bots, they are
+ * told it has been abandoned. Changes
+ * to a room happen inside ConcurrentHashMap.compute for its game, so a connection
+ * can't be added to a room just as the room is being removed.
+ */
 public class ConnectionManager {
     private final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<Connection>> rooms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Session, Set<Connection>> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger occupancy = new AtomicInteger();
+    private final IntConsumer onRoomClosed;
+
+    /**
+     * @param onRoomClosed called with a game's id when the last connection to it is
+     *                     removed
+     */
+    public ConnectionManager(IntConsumer onRoomClosed) {
+        this.onRoomClosed = onRoomClosed;
+    }
+
+    public ConnectionManager() {
+        this(gameId -> {
+        });
+    }
 
     private String key(String userName, int gameId) {
         return userName + ":" + gameId;
     }
 
     public void add(String userName, Session session, int gameId) {
-        var connection = new Connection(userName, session, gameId);
-        connections.put(key(userName, gameId), connection);
+        add(new Connection(userName, session, gameId));
+    }
+
+    /**
+     * Adds a connection to its game's room, replacing any earlier connection of the
+     * same user to the same game
+     */
+    public void add(Connection connection) {
+        Connection previous = connections.put(key(connection.userName, connection.gameId), connection);
+        rooms.compute(connection.gameId, (gameId, room) -> {
+            if (room == null) {
+                room = ConcurrentHashMap.newKeySet();
+            }
+            if (room.add(connection)) {
+                occupancy.incrementAndGet();
+            }
+            return room;
+        });
+        if (connection.session != null) {
+            sessions.compute(connection.session, (session, sessionConnections) -> {
+                if (sessionConnections == null) {
+                    sessionConnections = ConcurrentHashMap.newKeySet();
+                }
+                sessionConnections.add(connection);
+                return sessionConnections;
+            });
+        }
+        // after the new connection is in, so the room doesn't look empty or abandoned
+        if (previous != null && previous != connection) {
+            leaveRoom(previous);
+        }
     }
 
     public void remove(String userName, int gameId) {
-        connections.remove(key(userName, gameId));
+        Connection connection = connections.remove(key(userName, gameId));
+        if (connection != null) {
+            leaveRoom(connection);
+        }
+    }
+
+    /**
+     * Drops every connection made over a session, for when it closes
+     */
+    public void removeSession(Session session) {
+        Set<Connection> closed = sessions.remove(session);
+        if (closed != null) {
+            for (Connection connection : closed) {
+                remove(connection);
+            }
+        }
+    }
+
+    /**
+     * Drops a connection from its game, if it is still the one there for its user
+     */
+    public void remove(Connection connection) {
+        connections.remove(key(connection.userName, connection.gameId), connection);
+        leaveRoom(connection);
     }
 
-    public void broadcast(String excludeUserName, ServerMessage serverMessage, int gameId) throws IOException {
-        var removeList = new ArrayList<String>();
-        for (var c : connections.values()) {
-            if (c.session.isOpen() && c.gameId == gameId) {
-                if (!c.userName.equals(excludeUserName)) {
-                    c.send(new Gson().toJson(serverMessage));
+    private void leaveRoom(Connection connection) {
+        boolean[] closed = {false};
+        List<Connection> abandoned = new ArrayList<>();
+        rooms.computeIfPresent(connection.gameId, (gameId, room) -> {
+            if (room.remove(connection)) {
+                occupancy.decrementAndGet();
+                if (!connection.isAutomated() && room.stream().allMatch(Connection::isAutomated)) {
+                    abandoned.addAll(room);
                 }
-            } else if (!c.session.isOpen()) {
-                removeList.add(key(c.userName, c.gameId));
             }
+            closed[0] = room.isEmpty();
+            return closed[0] ? null : room;
+        });
+        if (closed[0]) {
+            onRoomClosed.accept(connection.gameId);
         }
+        for (Connection automated : abandoned) {
+            automated.onAbandoned();
+        }
+        if (connection.session != null) {
+            sessions.computeIfPresent(connection.session, (session, sessionConnections) -> {
+                sessionConnections.remove(connection);
+                return sessionConnections.isEmpty() ? null : sessionConnections;
+            });
+        }
+    }
 
-        for (var key : removeList) {
-            connections.remove(key);
+    /**
+     * Sends a message to everyone in a game's room but one user. The message is
+     * encoded once, and every recipient is sent the same String.
+     */
+    public void broadcast(String excludeUserName, ServerMessage serverMessage, int gameId) {
+        Set<Connection> room = rooms.get(gameId);
+        if (room == null) {
+            return;
+        }
+        String payload = null;
+        boolean snapshot = isSnapshot(serverMessage);
+        for (var c : room) {
+            if (!c.isOpen()) {
+                remove(c);
+            } else if (!c.userName.equals(excludeUserName)) {
+                if (payload == null) {
+                    payload = ChessGson.get().toJson(serverMessage);
+                }
+                c.send(payload, snapshot);
+            }
         }
     }
 
-    public void sendOneMessage(String userName, int gameId, ServerMessage serverMessage) throws IOException {
+    public void sendOneMessage(String userName, int gameId, ServerMessage serverMessage) {
         Connection connection = connections.get(key(userName, gameId));
         if (connection != null) {
-            connection.send(new Gson().toJson(serverMessage));
+            connection.send(ChessGson.get().toJson(serverMessage), isSnapshot(serverMessage));
         }
     }
+
+    private static boolean isSnapshot(ServerMessage serverMessage) {
+        return serverMessage.getServerMessageType() == ServerMessage.ServerMessageType.LOAD_GAME;
+    }
+
+    /**
+     * @return the connection made over a session to a game, or null if it hasn't
+     * connected to that game
+     */
+    public Connection get(Session session, int gameId) {
+        Set<Connection> sessionConnections = sessions.get(session);
+        if (sessionConnections != null) {
+            for (Connection connection : sessionConnections) {
+                if (connection.gameId == gameId) {
+                    return connection;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return how many games have at least one connection
+     */
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * @return how many connections there are, over all rooms
+     */
+    public int getOccupancy() {
+        return occupancy.get();
+    }
+
+    public int getRoomSize(int gameId) {
+        Set<Connection> room = rooms.get(gameId);
+        return (room == null) ? 0 : room.size();
+    }
 }
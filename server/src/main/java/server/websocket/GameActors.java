@@ -0,0 +1,183 @@
+package server.websocket;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the commands for each game one at a time, in the order they arrived, while
+ * commands for different games run in parallel. Each game with work to do has an
+ * actor: a mailbox of tasks drained by one virtual thread. An actor is created by the
+ * first task for its game and retired when its mailbox runs dry.
+ * <p>
+ * Tasks are added, and actors retired, inside ConcurrentHashMap.compute for the
+ * game, so a task can't arrive just as its actor is retired and be left behind.
+ * <p>
+ * Once closed, tasks are turned away rather than queued. Close it after whatever
+ * submits tasks has stopped (in the server, after the WebSocket server and before
+ * the game DAO, which writes anything left waiting when it closes).
+ */
+public class GameActors {
+    private final ConcurrentHashMap<Integer, Actor> actors = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ThreadLocal<Actor> current = new ThreadLocal<>();
+
+    /**
+     * A unit of work for a game. Whatever it throws is reported, and the game's
+     * next task still runs.
+     */
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private final class Actor {
+        private final int gameId;
+        private final Queue<Task> mailbox = new ConcurrentLinkedQueue<>();
+        private boolean running;
+
+        private Actor(int gameId) {
+            this.gameId = gameId;
+        }
+
+        private void drain() {
+            current.set(this);
+            try {
+                while (true) {
+                    Task task = mailbox.poll();
+                    if (task == null) {
+                        if (retire()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        System.out.println("Error handling a command for game " + gameId + ": " + e);
+                    }
+                }
+            } finally {
+                current.remove();
+            }
+        }
+
+        private boolean retire() {
+            Actor after = actors.computeIfPresent(gameId, (id, actor) -> {
+                if (actor.mailbox.isEmpty()) {
+                    actor.running = false;
+                    return null;
+                }
+                return actor;
+            });
+            return after == null;
+        }
+    }
+
+    /**
+     * Queues a task behind any others for the same game
+     *
+     * @return false if the task was turned away because this has been closed
+     */
+    public boolean submit(int gameId, Task task) {
+        boolean queued = enqueue(gameId, task);
+        if (!queued) {
+            System.out.println("Dropped a command for game " + gameId + ": the server is stopping");
+        }
+        return queued;
+    }
+
+    /**
+     * Queues a task behind any others for the same game and waits for it, for work
+     * from outside the game's commands, such as an HTTP request, that has to be
+     * ordered with them. Once this has been closed, the task runs on the caller's
+     * thread instead.
+     * <p>
+     * Called from a task on the same game's actor, the task runs straight away, since
+     * waiting for it would be waiting on itself. Tasks can't wait on another game's
+     * actor, as two games waiting on each other would never finish.
+     *
+     * @throws Exception whatever the task threw
+     * @throws IllegalStateException if called from a task on another game's actor
+     */
+    public void run(int gameId, Task task) throws Exception {
+        Actor caller = current.get();
+        if (caller != null) {
+            if (caller.gameId != gameId) {
+                throw new IllegalStateException("A task for game " + caller.gameId
+                        + " can't wait on game " + gameId);
+            }
+            task.run();
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        boolean queued = enqueue(gameId, () -> {
+            try {
+                task.run();
+                done.complete(null);
+            } catch (Exception e) {
+                done.completeExceptionally(e);
+            }
+        });
+        if (!queued) {
+            task.run();
+            return;
+        }
+        try {
+            done.get();
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private boolean enqueue(int gameId, Task task) {
+        boolean[] queued = {false};
+        actors.compute(gameId, (id, actor) -> {
+            if (executor.isShutdown()) {
+                return actor;
+            }
+            if (actor == null) {
+                actor = new Actor(id);
+            }
+            actor.mailbox.add(task);
+            if (!actor.running) {
+                try {
+                    executor.execute(actor::drain);
+                } catch (RejectedExecutionException e) {
+                    // closed since the check above; nothing will drain the mailbox
+                    actor.mailbox.remove(task);
+                    return actor.mailbox.isEmpty() ? null : actor;
+                }
+                actor.running = true;
+            }
+            queued[0] = true;
+            return actor;
+        });
+        return queued[0];
+    }
+
+    /**
+     * @return how many games have tasks queued or running
+     */
+    public int getActiveGames() {
+        return actors.size();
+    }
+
+    /**
+     * Stops taking tasks and waits for the queued ones to finish. Tasks submitted
+     * after this are dropped.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,8 +3,10 @@ package server.websocket;
 import chess.ChessGame;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.DrawReason;
+import chess.GameStatus;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
+import serialization.ChessGson;
 import dataaccess.AuthDAO;
 import dataaccess.GameDAO;
 import dataaccess.mysql.MySQLAuthDAO;
@@ -13,6 +15,7 @@ import exception.ResponseException;
 import model.Auth;
 import model.Game;
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
 import websocket.commands.MakeMoveCommand;
@@ -31,48 +34,161 @@ import java.util.Set;
 @WebSocket
 public class WebSocketHandler {
 
-    private final ConnectionManager connections = new ConnectionManager();
+    private final ConnectionManager connections = new ConnectionManager(this::onRoomClosed);
+    private final GameActors actors = new GameActors();
     private GameDAO gameDAO;
     private AuthDAO authDAO;
+    private final int queueLimit;
+    private final Connection.OverflowPolicy overflowPolicy;
 
 
-    public WebSocketHandler(GameDAO gameDao, AuthDAO authDao) {
+    /**
+     * @param queueLimit     how many messages each connection can have waiting to be sent
+     * @param overflowPolicy what a connection does when that many are waiting
+     */
+    public WebSocketHandler(GameDAO gameDao, AuthDAO authDao, int queueLimit, Connection.OverflowPolicy overflowPolicy) {
         this.gameDAO = gameDao;
         this.authDAO = authDao;
+        this.queueLimit = queueLimit;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public WebSocketHandler(GameDAO gameDao, AuthDAO authDao) {
+        this(gameDao, authDao, Connection.DEFAULT_QUEUE_LIMIT, Connection.DEFAULT_OVERFLOW_POLICY);
+    }
+
+    public ConnectionManager getConnections() {
+        return connections;
+    }
+
+    /**
+     * Lets the game DAO put a game away once nobody is connected to it. This goes
+     * through the game's actor, behind any commands still queued for it, and checks
+     * the room again in case someone has connected since.
+     */
+    private void onRoomClosed(int gameId) {
+        actors.submit(gameId, () -> {
+            if (connections.getRoomSize(gameId) == 0) {
+                gameDAO.deactivate(gameId);
+            }
+        });
+    }
+
+    /**
+     * Drops an in-process connection, such as a bot's, from its game. It has no
+     * session to close, so nothing else would. This goes through the game's actor, so
+     * the commands already queued for the game are handled first.
+     */
+    public void disconnect(Connection connection) {
+        actors.submit(connection.gameId, () -> connections.remove(connection));
+    }
+
+    /**
+     * Makes a change to a game from outside its WebSocket commands, such as an HTTP
+     * join, on the game's actor, and waits for it. Made on any other thread, the change
+     * could read the game before a move and write it back after, losing the move.
+     */
+    public void update(int gameId, GameActors.Task change) throws ResponseException {
+        try {
+            actors.run(gameId, change);
+        } catch (ResponseException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseException(500, "Error: interrupted");
+        } catch (Exception e) {
+            throw new ResponseException(500, "Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finishes the commands already received, and stops taking new ones
+     */
+    public void close() {
+        actors.close();
+    }
+
+    @OnWebSocketClose
+    public void onClose(Session session, int statusCode, String reason) {
+        connections.removeSession(session);
     }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException, InvalidMoveException, ResponseException {
-        UserGameCommand userGameCommand = new Gson().fromJson(message, UserGameCommand.class);
+        // replies go through the session's connection to the game, if it has one, so
+        // they are queued in order with the game's broadcasts
+        UserGameCommand userGameCommand = ChessGson.get().fromJson(message, UserGameCommand.class);
+        int gameId = gameIdOf(userGameCommand);
+        Connection sender = connections.get(session, gameId);
+        if (sender == null) {
+            sender = new Connection(null, session, gameId, queueLimit, overflowPolicy);
+        }
+        submit(sender, userGameCommand, message);
+    }
+
+    /**
+     * Handles a command from any connection, including in-process ones such as bots.
+     * The sender gets replies that go to it alone, and joins its game on CONNECT.
+     * <p>
+     * Commands are queued to their game's actor and handled there, one at a time, so
+     * this returns before the command has been handled.
+     */
+    public void onMessage(Connection sender, String message) throws IOException, ResponseException {
+        submit(sender, ChessGson.get().fromJson(message, UserGameCommand.class), message);
+    }
+
+    private static int gameIdOf(UserGameCommand userGameCommand) {
+        return (userGameCommand.gameID() == null) ? 0 : userGameCommand.gameID();
+    }
+
+    /**
+     * Queues a command to its game's actor. If handling it fails, the sender is told,
+     * rather than left waiting for a reply.
+     */
+    private void submit(Connection sender, UserGameCommand userGameCommand, String message) {
+        actors.submit(gameIdOf(userGameCommand), () -> {
+            try {
+                handle(sender, userGameCommand, message);
+            } catch (Exception e) {
+                sender.send(ChessGson.get().toJson(new ErrorMessage("Error: " + e.getMessage())));
+                throw e;
+            }
+        });
+    }
+
+    private void handle(Connection sender, UserGameCommand userGameCommand, String message) throws IOException, ResponseException {
         switch (userGameCommand.commandType()) {
-            case CONNECT -> connect(userGameCommand.authToken(), session, userGameCommand.gameID());
+            case CONNECT -> connect(userGameCommand.authToken(), sender, userGameCommand.gameID());
             case MAKE_MOVE -> {
-                MakeMoveCommand makeMoveCommand = new Gson().fromJson(message, MakeMoveCommand.class);
-                makeMove(makeMoveCommand, session, makeMoveCommand.authToken());
+                MakeMoveCommand makeMoveCommand = ChessGson.get().fromJson(message, MakeMoveCommand.class);
+                makeMove(makeMoveCommand, sender, makeMoveCommand.authToken());
             }
             case LEAVE -> leave(userGameCommand);
-            case RESIGN -> resign(userGameCommand.authToken(), session, userGameCommand.gameID());
+            case RESIGN -> resign(userGameCommand.authToken(), sender, userGameCommand.gameID());
         }
     }
 
-    private void connect(String authToken, Session session, int gameId) throws IOException, ResponseException {
+    private void connect(String authToken, Connection sender, int gameId) throws IOException, ResponseException {
         Auth authData = authDAO.getAuth(authToken);
         if (authData == null) {
             var errorMessage = "Invalid authentication token.";
             var errorServerMessage = new ErrorMessage("Invalid authentication token.");
-            session.getRemote().sendString(new Gson().toJson(errorServerMessage));
+            sender.send(ChessGson.get().toJson(errorServerMessage));
             return;
         }
         String userName = authData.username();
 
+        gameDAO.activate(gameId);
         Game game = gameDAO.getGame(gameId);
         if (game == null) {
             var errorMessage = "Invalid gameId.";
             var errorServerMessage = new ErrorMessage("Invalid gameId.");
-            session.getRemote().sendString(new Gson().toJson(errorServerMessage));
+            sender.send(ChessGson.get().toJson(errorServerMessage));
             return;
         }
-        connections.add(userName, session, gameId);
+        sender.userName = userName;
+        sender.gameId = gameId;
+        connections.add(sender);
 
         ServerMessage loadGameMessage = new LoadGameMessage(game);
         connections.sendOneMessage(userName, game.gameID(),loadGameMessage);
@@ -91,12 +207,12 @@ public class WebSocketHandler {
 
     }
 
-    private void makeMove(MakeMoveCommand command, Session session, String authToken) throws IOException, ResponseException {
+    private void makeMove(MakeMoveCommand command, Connection sender, String authToken) throws IOException, ResponseException {
         Auth authData = authDAO.getAuth(authToken);
         if (authData == null) {
             var errorMessage = "Invalid authentication token.";
             var errorServerMessage = new ErrorMessage(errorMessage);
-            session.getRemote().sendString(new Gson().toJson(errorServerMessage));
+            sender.send(ChessGson.get().toJson(errorServerMessage));
             return;
         }
 
@@ -113,7 +229,7 @@ public class WebSocketHandler {
         if (game.gameOver()) {
             var errorMessage = "can't move if game is over or if you have resigned";
             var errorServerMessage = new ErrorMessage(errorMessage);
-            session.getRemote().sendString(new Gson().toJson(errorServerMessage));
+            sender.send(ChessGson.get().toJson(errorServerMessage));
             return;
         }
 
@@ -128,8 +244,6 @@ public class WebSocketHandler {
 
         try {
             game.game().makeMove(command.getMove());
-            Game newGame = new Game(command.gameID(), whiteUser, blackUser, game.gameName(), game.game(), false);
-            gameDAO.updateGame(newGame);
         } catch (InvalidMoveException e) {
             String errorMessage = "Invalid move";
             ServerMessage invalidMoveMessage = new ErrorMessage(errorMessage);
@@ -137,23 +251,26 @@ public class WebSocketHandler {
             return;
         }
 
-        ServerMessage loadGameMessage = new LoadGameMessage(game);
+        GameStatus status = game.game().getStatus();
+        DrawReason drawReason = (status.type() == GameStatus.Type.CHECKMATE) ? null : game.game().getDrawReason();
+        boolean gameOver = status.isGameOver() || drawReason != null;
+        game.game().setGameOver(gameOver);
+        Game newGame = new Game(command.gameID(), whiteUser, blackUser, game.gameName(), game.game(), gameOver);
+        gameDAO.updateGame(newGame);
+
+        ServerMessage loadGameMessage = new LoadGameMessage(newGame);
         connections.broadcast("", loadGameMessage, gameId);
 
         ChessGame.TeamColor currentPlayerColor = game.game().getTeamTurn();
-        boolean isCheck = game.game().isInCheck(currentPlayerColor);
-        boolean isCheckmate = game.game().isInCheckmate(currentPlayerColor);
-        boolean isStalemate = game.game().isInStalemate(currentPlayerColor);
-
-
-        String gameStatusMessage = "";
         String opponentUser = currentPlayerColor == ChessGame.TeamColor.WHITE ? whiteUser : blackUser;
-        if (isCheckmate) {
-            gameStatusMessage = String.format("Checkmate! %s is in checkmate.", opponentUser);
-        } else if (isStalemate) {
-            gameStatusMessage = String.format("Stalemate! No legal moves for %s.", opponentUser);
-        } else if (isCheck) {
-            gameStatusMessage = String.format("Check! %s's king is in danger.", opponentUser);
+        String gameStatusMessage = switch (status.type()) {
+            case CHECKMATE -> String.format("Checkmate! %s is in checkmate.", opponentUser);
+            case STALEMATE -> String.format("Stalemate! No legal moves for %s.", opponentUser);
+            case CHECK -> String.format("Check! %s's king is in danger.", opponentUser);
+            case NORMAL -> "";
+        };
+        if (drawReason != null && !status.isGameOver()) {
+            gameStatusMessage = String.format("Draw by %s. The game is over.", drawReason.getDescription());
         }
 
         if (!gameStatusMessage.isEmpty()) {
@@ -207,13 +324,13 @@ public class WebSocketHandler {
 
 
 
-    private void resign(String authToken, Session session, int gameId) throws IOException, ResponseException {
+    private void resign(String authToken, Connection sender, int gameId) throws IOException, ResponseException {
 
         Auth authData = authDAO.getAuth(authToken);
         if (authData == null) {
             var errorMessage = "Invalid authentication token.";
             var errorServerMessage = new ErrorMessage(errorMessage);
-            session.getRemote().sendString(new Gson().toJson(errorServerMessage));
+            sender.send(ChessGson.get().toJson(errorServerMessage));
             return;
         }
 
@@ -221,14 +338,14 @@ public class WebSocketHandler {
         if (game == null) {
             var errorMessage = "There is no game to resign from.";
             var errorServerMessage = new ErrorMessage(errorMessage);
-            session.getRemote().sendString(new Gson().toJson(errorServerMessage));
+            sender.send(ChessGson.get().toJson(errorServerMessage));
             return;
         }
 
         if (game.gameOver()) {
             var errorMessage = "You can't double resign.";
             var errorServerMessage = new ErrorMessage(errorMessage);
-            session.getRemote().sendString(new Gson().toJson(errorServerMessage));
+            sender.send(ChessGson.get().toJson(errorServerMessage));
             return;
         }
 
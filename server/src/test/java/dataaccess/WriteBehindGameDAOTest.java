@@ -0,0 +1,206 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import exception.ResponseException;
+import model.Auth;
+import model.Game;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import serialization.ChessGson;
+import server.websocket.Connection;
+import server.websocket.WebSocketHandler;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindGameDAOTest {
+    private final CountingGameDAO store = new CountingGameDAO();
+    private WriteBehindGameDAO gameDAO;
+
+    @AfterEach
+    void close() throws ResponseException {
+        if (gameDAO != null) {
+            gameDAO.close();
+        }
+    }
+
+    @Test
+    void activeGamesAreUpdatedInMemoryAndWrittenOnce() throws ResponseException {
+        gameDAO = new WriteBehindGameDAO(store, 100, 60_000);
+        int gameId = createGame();
+        gameDAO.activate(gameId);
+
+        for (int i = 0; i < 5; i++) {
+            gameDAO.updateGame(new Game(gameId, "white", null, "move " + i, new ChessGame()));
+        }
+        assertEquals(0, store.writes.size());
+        assertEquals("move 4", gameDAO.getGame(gameId).gameName());
+
+        gameDAO.flush();
+        assertEquals(1, store.writes.size());
+        assertEquals("move 4", store.writes.get(0).gameName());
+    }
+
+    @Test
+    void activeGamesAreHandedOutAsCopies() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 100, 60_000);
+        int gameId = createGame();
+        gameDAO.activate(gameId);
+        ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+
+        gameDAO.getGame(gameId).game().makeMove(e4);
+        gameDAO.listGames().iterator().next().game().makeMove(e4);
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(gameId).game().getTeamTurn());
+
+        Game updated = gameDAO.getGame(gameId);
+        gameDAO.updateGame(updated);
+        updated.game().makeMove(e4);
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(gameId).game().getTeamTurn());
+    }
+
+    @Test
+    void inactiveGamesAreWrittenStraightThrough() throws ResponseException {
+        gameDAO = new WriteBehindGameDAO(store, 100, 60_000);
+        int gameId = createGame();
+
+        gameDAO.updateGame(new Game(gameId, "white", null, "renamed", new ChessGame()));
+        assertEquals(1, store.writes.size());
+        assertEquals(0, gameDAO.getActiveGames());
+    }
+
+    @Test
+    void writesAfterEnoughUpdates() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 3, 60_000);
+        int first = createGame();
+        int second = createGame();
+        gameDAO.activate(first);
+        gameDAO.activate(second);
+
+        gameDAO.updateGame(new Game(first, null, null, "a", new ChessGame()));
+        gameDAO.updateGame(new Game(first, null, null, "b", new ChessGame()));
+        gameDAO.updateGame(new Game(second, null, null, "c", new ChessGame()));
+
+        waitFor(() -> store.writes.size() == 2);
+        assertEquals(0, gameDAO.getUnwrittenGames());
+    }
+
+    @Test
+    void writesOnATimer() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 100, 20);
+        int gameId = createGame();
+        gameDAO.activate(gameId);
+
+        gameDAO.updateGame(new Game(gameId, null, null, "a", new ChessGame()));
+        waitFor(() -> store.writes.size() == 1);
+    }
+
+    @Test
+    void deactivateWritesAndForgetsTheGame() throws ResponseException {
+        gameDAO = new WriteBehindGameDAO(store, 100, 60_000);
+        int gameId = createGame();
+        gameDAO.activate(gameId);
+        gameDAO.updateGame(new Game(gameId, null, null, "a", new ChessGame()));
+
+        gameDAO.deactivate(gameId);
+        assertEquals(1, store.writes.size());
+        assertEquals(0, gameDAO.getActiveGames());
+    }
+
+    @Test
+    void closeWritesWhatIsWaiting() throws ResponseException {
+        WriteBehindGameDAO closing = new WriteBehindGameDAO(store, 100, 60_000);
+        int gameId = store.createGame(new Game(0, null, null, "game", new ChessGame())).gameID();
+        closing.activate(gameId);
+        closing.updateGame(new Game(gameId, null, null, "a", new ChessGame()));
+
+        closing.close();
+        assertEquals(1, store.writes.size());
+    }
+
+    @Test
+    void clearForgetsActiveGames() throws ResponseException {
+        gameDAO = new WriteBehindGameDAO(store, 100, 60_000);
+        int gameId = createGame();
+        gameDAO.activate(gameId);
+        gameDAO.updateGame(new Game(gameId, null, null, "a", new ChessGame()));
+
+        gameDAO.clear();
+        assertEquals(0, gameDAO.getActiveGames());
+        assertEquals(0, gameDAO.getUnwrittenGames());
+        assertNull(gameDAO.getGame(gameId));
+        assertTrue(gameDAO.listGames().isEmpty());
+    }
+
+    @Test
+    void gamesAreHeldWhilePlayersAreConnected() throws Exception {
+        gameDAO = new WriteBehindGameDAO(store, 100, 60_000);
+        MemoryAuthDAO authDAO = new MemoryAuthDAO();
+        authDAO.createAuth(new Auth("token", "white"));
+        int gameId = gameDAO.createGame(new Game(0, "white", null, "game", new ChessGame())).gameID();
+        WebSocketHandler handler = new WebSocketHandler(gameDAO, authDAO);
+        RecordingConnection player = new RecordingConnection(gameId);
+
+        handler.onMessage(player, ChessGson.get().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.CONNECT, "token", gameId)));
+        ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        handler.onMessage(player, ChessGson.get().toJson(new MakeMoveCommand(e4, "token", gameId)));
+        waitFor(() -> gameDAO.getUnwrittenGames() == 1);
+        assertTrue(player.messages.get(0).contains("LOAD_GAME"));
+        assertEquals(1, gameDAO.getActiveGames());
+        assertEquals(0, store.writes.size());
+
+        handler.onMessage(player, ChessGson.get().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.LEAVE, "token", gameId)));
+        waitFor(() -> gameDAO.getActiveGames() == 0);
+        handler.close();
+        assertEquals(ChessGame.TeamColor.BLACK, store.getGame(gameId).game().getTeamTurn());
+        assertNull(store.getGame(gameId).whiteUsername());
+    }
+
+    private int createGame() throws ResponseException {
+        return gameDAO.createGame(new Game(0, null, null, "game", new ChessGame())).gameID();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static class CountingGameDAO extends MemoryGameDAO {
+        private final List<Game> writes = new ArrayList<>();
+
+        @Override
+        public synchronized void updateGame(Game game) {
+            writes.add(game);
+            super.updateGame(game);
+        }
+    }
+
+    private static class RecordingConnection extends Connection {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        RecordingConnection(int gameId) {
+            super(null, null, gameId);
+        }
+
+        @Override
+        protected void write(String msg, WriteCallback callback) {
+            messages.add(msg);
+            callback.writeSuccess();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package server.benchmark;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.Game;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import server.websocket.Connection;
+import server.websocket.ConnectionManager;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.ServerMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares broadcasting a LOAD_GAME to two players and a room of spectators the old
+ * way (a new reflective Gson encoding the message again for every recipient, then a
+ * send to each) against {@link ConnectionManager#broadcast}, which encodes it once
+ * with ChessGson. The connections discard what they are sent, so only the server's
+ * own work is measured. Run with {@code -prof gc} to see the allocation per move.
+ * <p>
+ * Run from the IDE, or after {@code mvn -pl server test-compile} with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+    private static final int GAME_ID = 1;
+    private static final String POSITION = "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8";
+
+    @Param({"10", "100"})
+    public int spectators;
+
+    private final ConnectionManager connections = new ConnectionManager();
+    private final List<Connection> room = new ArrayList<>();
+    private ServerMessage message;
+
+    @Setup
+    public void setUp() {
+        add("white");
+        add("black");
+        for (int i = 0; i < spectators; i++) {
+            add("spectator-" + i);
+        }
+        message = new LoadGameMessage(new Game(GAME_ID, "white", "black", "bench", ChessGame.fromFen(POSITION)));
+    }
+
+    private void add(String userName) {
+        Connection connection = new DiscardingConnection(userName);
+        connections.add(connection);
+        room.add(connection);
+    }
+
+    @Benchmark
+    public void encodePerRecipient() {
+        for (Connection connection : room) {
+            connection.send(new Gson().toJson(message), true);
+        }
+    }
+
+    @Benchmark
+    public void encodeOnce() {
+        connections.broadcast("", message, GAME_ID);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BroadcastBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static class DiscardingConnection extends Connection {
+        DiscardingConnection(String userName) {
+            super(userName, null, GAME_ID);
+        }
+
+        @Override
+        protected void write(String msg, WriteCallback callback) {
+            callback.writeSuccess();
+        }
+    }
+}
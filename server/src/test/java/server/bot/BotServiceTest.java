@@ -0,0 +1,221 @@
+package server.bot;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import dataaccess.MemoryUserDAO;
+import exception.ResponseException;
+import model.Auth;
+import model.Game;
+import model.User;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import results.RegisterResult;
+import serialization.ChessGson;
+import server.websocket.Connection;
+import server.websocket.WebSocketHandler;
+import service.JoinService;
+import service.RegisterService;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotServiceTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final MemoryUserDAO userDAO = new MemoryUserDAO();
+    private final MemoryAuthDAO authDAO = new MemoryAuthDAO();
+    private final MemoryGameDAO gameDAO = new MemoryGameDAO();
+    private final WebSocketHandler handler = new WebSocketHandler(gameDAO, authDAO);
+    private BotService botService;
+    private String authToken;
+
+    @BeforeEach
+    void startFresh() throws ResponseException {
+        botService = new BotService(userDAO, authDAO, gameDAO, handler, 2, 4, 20);
+        authToken = register("player");
+    }
+
+    @AfterEach
+    void stopBots() {
+        botService.close();
+    }
+
+    @Test
+    void botsPlayEachOther() throws Exception {
+        int gameId = createGame();
+        botService.addBot(authToken, "WHITE", gameId);
+        botService.addBot(authToken, "BLACK", gameId);
+
+        waitFor(() -> botService.getMovesPlayed() >= 6 || botService.getBots().isEmpty());
+
+        Game game = gameDAO.getGame(gameId);
+        assertNotEquals(new ChessGame().getBoard(), game.game().getBoard());
+        assertTrue(game.whiteUsername().startsWith("bot-"));
+        assertTrue(game.blackUsername().startsWith("bot-"));
+    }
+
+    @Test
+    void botAnswersPlayersMove() throws Exception {
+        int gameId = createGame();
+        new JoinService(authDAO, gameDAO).joinGame(authToken, "WHITE", gameId);
+        String botName = botService.addBot(authToken, "BLACK", gameId);
+
+        RecordingConnection player = new RecordingConnection();
+        handler.onMessage(player, ChessGson.get().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId)));
+        ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        handler.onMessage(player, ChessGson.get().toJson(new MakeMoveCommand(e4, authToken, gameId)));
+
+        waitFor(() -> player.messages.stream().anyMatch(message -> message.contains(botName + " made a move")));
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(gameId).game().getTeamTurn());
+        assertEquals(1, botService.getMovesPlayed());
+    }
+
+    @Test
+    void botWaitsForItsTurn() throws Exception {
+        int gameId = createGame();
+        botService.addBot(authToken, "BLACK", gameId);
+
+        Thread.sleep(200);
+        assertEquals(0, botService.getMovesPlayed());
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(gameId).game().getTeamTurn());
+    }
+
+    @Test
+    void finishedBotsLeaveTheirGame() throws Exception {
+        int gameId = createGame();
+        new JoinService(authDAO, gameDAO).joinGame(authToken, "WHITE", gameId);
+        botService.addBot(authToken, "BLACK", gameId);
+        waitFor(() -> handler.getConnections().getRoomCount() == 1);
+
+        handler.onMessage(new RecordingConnection(), ChessGson.get().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameId)));
+
+        waitFor(() -> botService.getBots().isEmpty());
+        waitFor(() -> handler.getConnections().getRoomCount() == 0);
+    }
+
+    @Test
+    void botLeavesWhenThePlayerDoes() throws Exception {
+        int gameId = createGame();
+        new JoinService(authDAO, gameDAO).joinGame(authToken, "WHITE", gameId);
+        botService.addBot(authToken, "BLACK", gameId);
+        RecordingConnection player = new RecordingConnection();
+        handler.onMessage(player, ChessGson.get().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId)));
+        waitFor(() -> handler.getConnections().getRoomSize(gameId) == 2);
+
+        handler.onMessage(player, ChessGson.get().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameId)));
+
+        waitFor(() -> botService.getBots().isEmpty());
+        waitFor(() -> handler.getConnections().getRoomCount() == 0);
+        waitFor(() -> gameDAO.getGame(gameId).blackUsername() == null);
+        assertEquals(1, botService.getBotsFinished());
+    }
+
+    @Test
+    void botResignsWhenItsMoveIsRefused() throws Exception {
+        int gameId = createGame();
+        new JoinService(authDAO, gameDAO).joinGame(authToken, "WHITE", gameId);
+        botService.addBot(authToken, "BLACK", gameId);
+        RecordingConnection player = new RecordingConnection();
+        handler.onMessage(player, ChessGson.get().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId)));
+        waitFor(() -> handler.getConnections().getRoomSize(gameId) == 2);
+
+        // signs the bot out, so the server refuses its move
+        authDAO.clear();
+        authDAO.createAuth(new Auth(authToken, "player"));
+        ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        handler.onMessage(player, ChessGson.get().toJson(new MakeMoveCommand(e4, authToken, gameId)));
+
+        waitFor(() -> botService.getBots().isEmpty());
+        assertEquals(0, botService.getMovesPlayed());
+        assertEquals(1, botService.getBotsFinished());
+    }
+
+    @Test
+    void botsOfAColorShareAnAccount() throws ResponseException {
+        String first = botService.addBot(authToken, "BLACK", createGame());
+        String second = botService.addBot(authToken, "BLACK", createGame());
+        String white = botService.addBot(authToken, "WHITE", createGame());
+
+        assertEquals(first, second);
+        assertNotEquals(first, white);
+        assertNotNull(userDAO.getUser(first));
+    }
+
+    @Test
+    void addBotRejectsBadRequests() throws ResponseException {
+        int gameId = createGame();
+        assertStatus(401, () -> botService.addBot("not a token", "WHITE", gameId));
+        assertStatus(400, () -> botService.addBot(authToken, "GREEN", gameId));
+        assertStatus(400, () -> botService.addBot(authToken, "WHITE", gameId + 1));
+
+        new JoinService(authDAO, gameDAO).joinGame(authToken, "WHITE", gameId);
+        assertStatus(403, () -> botService.addBot(authToken, "WHITE", gameId));
+    }
+
+    @Test
+    void addBotLimitsHowManyBotsPlay() throws ResponseException {
+        for (int i = 0; i < 4; i++) {
+            botService.addBot(authToken, "BLACK", createGame());
+        }
+        int gameId = createGame();
+        assertStatus(503, () -> botService.addBot(authToken, "BLACK", gameId));
+
+        botService.getBots().iterator().next().finish();
+        assertNotNull(botService.addBot(authToken, "BLACK", gameId));
+    }
+
+    private String register(String username) throws ResponseException {
+        RegisterResult result = new RegisterService(userDAO, authDAO)
+                .register(new User(username, "password", username + "@example.com"));
+        return result.authToken();
+    }
+
+    private int createGame() {
+        return gameDAO.createGame(new Game(0, null, null, "game", new ChessGame())).gameID();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the bots");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void assertStatus(int status, Executable request) {
+        ResponseException exception = assertThrows(ResponseException.class, request);
+        assertEquals(status, exception.statusCode());
+    }
+
+    private static class RecordingConnection extends Connection {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        RecordingConnection() {
+            super(null, null, 0);
+        }
+
+        @Override
+        protected void write(String msg, WriteCallback callback) {
+            messages.add(msg);
+            callback.writeSuccess();
+        }
+    }
+}
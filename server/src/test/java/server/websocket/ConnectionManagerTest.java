@@ -0,0 +1,179 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+import websocket.messages.NotificationMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionManagerTest {
+    private final ConnectionManager connections = new ConnectionManager();
+
+    @Test
+    void broadcastReachesOnlyTheRoom() throws IOException {
+        TestConnection white = add("white", null, 1);
+        TestConnection black = add("black", null, 1);
+        TestConnection other = add("other", null, 2);
+
+        connections.broadcast("white", new NotificationMessage("hello"), 1);
+
+        assertEquals(0, white.messages.size());
+        assertEquals(1, black.messages.size());
+        assertEquals(0, other.messages.size());
+    }
+
+    @Test
+    void roomsAreCountedAndRemovedWhenEmpty() {
+        add("white", null, 1);
+        add("black", null, 1);
+        add("other", null, 2);
+        assertEquals(2, connections.getRoomCount());
+        assertEquals(3, connections.getOccupancy());
+        assertEquals(2, connections.getRoomSize(1));
+
+        connections.remove("white", 1);
+        connections.remove("black", 1);
+        assertEquals(1, connections.getRoomCount());
+        assertEquals(1, connections.getOccupancy());
+        assertEquals(0, connections.getRoomSize(1));
+    }
+
+    @Test
+    void reconnectingReplacesTheOldConnection() throws IOException {
+        TestConnection first = add("white", null, 1);
+        TestConnection second = add("white", null, 1);
+        assertEquals(1, connections.getOccupancy());
+
+        connections.broadcast("", new NotificationMessage("hello"), 1);
+        assertEquals(0, first.messages.size());
+        assertEquals(1, second.messages.size());
+    }
+
+    @Test
+    void closingASessionLeavesEveryRoom() {
+        Session session = fakeSession();
+        add("watcher", session, 1);
+        add("watcher", session, 2);
+        add("player", fakeSession(), 2);
+
+        connections.removeSession(session);
+
+        assertEquals(1, connections.getRoomCount());
+        assertEquals(1, connections.getOccupancy());
+        assertEquals(0, connections.getRoomSize(1));
+    }
+
+    @Test
+    void closedConnectionsAreDroppedOnBroadcast() throws IOException {
+        TestConnection closed = add("gone", null, 1);
+        TestConnection open = add("here", null, 1);
+        closed.open = false;
+
+        connections.broadcast("", new NotificationMessage("hello"), 1);
+
+        assertEquals(0, closed.messages.size());
+        assertEquals(1, open.messages.size());
+        assertEquals(1, connections.getRoomSize(1));
+    }
+
+    @Test
+    void automatedConnectionsAreToldWhenThePeopleLeave() {
+        TestConnection bot = add("bot", null, 1);
+        bot.automated = true;
+        add("player", null, 1);
+        add("player", null, 1);
+        assertFalse(bot.abandoned);
+
+        connections.remove("player", 1);
+        assertTrue(bot.abandoned);
+    }
+
+    @Test
+    void aFailingWriteDoesNotStopTheBroadcast() throws IOException {
+        List<FailingConnection> failing = new ArrayList<>();
+        List<TestConnection> working = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            FailingConnection connection = new FailingConnection("failing " + i, 1);
+            connections.add(connection);
+            failing.add(connection);
+            working.add(add("working " + i, null, 1));
+        }
+
+        connections.broadcast("", new NotificationMessage("hello"), 1);
+
+        for (TestConnection connection : working) {
+            assertEquals(1, connection.messages.size());
+        }
+        for (FailingConnection connection : failing) {
+            assertFalse(connection.isOpen());
+            assertEquals(0, connection.getQueued());
+        }
+        connections.broadcast("", new NotificationMessage("again"), 1);
+        assertEquals(4, connections.getRoomSize(1));
+    }
+
+    private TestConnection add(String userName, Session session, int gameId) {
+        TestConnection connection = new TestConnection(userName, session, gameId);
+        connections.add(connection);
+        return connection;
+    }
+
+    private static Session fakeSession() {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "isOpen" -> true;
+                    default -> null;
+                });
+    }
+
+    private static class TestConnection extends Connection {
+        private final List<String> messages = new ArrayList<>();
+        private boolean open = true;
+        private boolean automated;
+        private boolean abandoned;
+
+        TestConnection(String userName, Session session, int gameId) {
+            super(userName, session, gameId);
+        }
+
+        @Override
+        protected void write(String msg, WriteCallback callback) {
+            messages.add(msg);
+            callback.writeSuccess();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open && super.isOpen();
+        }
+
+        @Override
+        public boolean isAutomated() {
+            return automated;
+        }
+
+        @Override
+        public void onAbandoned() {
+            abandoned = true;
+        }
+    }
+
+    private static class FailingConnection extends Connection {
+        FailingConnection(String userName, int gameId) {
+            super(userName, null, gameId);
+        }
+
+        @Override
+        protected void write(String msg, WriteCallback callback) {
+            throw new IllegalStateException("session is closing");
+        }
+    }
+}
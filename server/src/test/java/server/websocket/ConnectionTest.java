@@ -0,0 +1,139 @@
+package server.websocket;
+
+import chess.ChessGame;
+import model.Game;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionTest {
+
+    @Test
+    void sendsWaitForTheWriteBeforeThem() {
+        StalledConnection connection = new StalledConnection(4, Connection.OverflowPolicy.DISCONNECT);
+        connection.send("a");
+        connection.send("b");
+        assertEquals(List.of("a"), connection.written);
+        assertEquals(1, connection.getQueued());
+
+        connection.finishWrites();
+        assertEquals(List.of("a", "b"), connection.written);
+        assertEquals(0, connection.getQueued());
+    }
+
+    @Test
+    void coalesceKeepsOnlyTheNewestGame() {
+        StalledConnection connection = new StalledConnection(4, Connection.OverflowPolicy.COALESCE);
+        connection.send("game 1", true);
+        connection.send("game 2", true);
+        connection.send("note", false);
+        connection.send("game 3", true);
+
+        connection.finishWrites();
+        assertEquals(List.of("game 1", "note", "game 3"), connection.written);
+        assertEquals(1, connection.getDropped());
+        assertTrue(connection.isOpen());
+    }
+
+    @Test
+    void dropStaleMakesRoomByDroppingOldGames() {
+        StalledConnection connection = new StalledConnection(3, Connection.OverflowPolicy.DROP_STALE);
+        connection.send("game 0", true);
+        connection.send("game 1", true);
+        connection.send("note 1", false);
+        connection.send("game 2", true);
+        connection.send("note 2", false);
+
+        connection.finishWrites();
+        assertEquals(List.of("game 0", "note 1", "game 2", "note 2"), connection.written);
+        assertEquals(1, connection.getDropped());
+        assertTrue(connection.isOpen());
+    }
+
+    @Test
+    void disconnectClosesWhenTheQueueFills() {
+        StalledConnection connection = new StalledConnection(2, Connection.OverflowPolicy.DISCONNECT);
+        for (int i = 0; i < 3; i++) {
+            connection.send("game " + i, true);
+        }
+        assertTrue(connection.isOpen());
+
+        connection.send("one too many");
+        assertFalse(connection.isOpen());
+        assertEquals(0, connection.getQueued());
+        connection.finishWrites();
+        assertEquals(List.of("game 0"), connection.written);
+    }
+
+    @Test
+    void failedWriteCloses() {
+        StalledConnection connection = new StalledConnection(4, Connection.OverflowPolicy.COALESCE);
+        connection.send("a");
+        connection.send("b");
+        connection.pending.poll().writeFailed(new IOException("gone"));
+
+        assertFalse(connection.isOpen());
+        assertEquals(List.of("a"), connection.written);
+    }
+
+    @Test
+    void slowSpectatorDoesNotDelayPlayers() {
+        ConnectionManager connections = new ConnectionManager();
+        List<String> white = new ArrayList<>();
+        connections.add(new Connection("white", null, 1) {
+            @Override
+            protected void write(String msg, WriteCallback callback) {
+                white.add(msg);
+                callback.writeSuccess();
+            }
+        });
+        StalledConnection spectator = new StalledConnection(4, Connection.OverflowPolicy.COALESCE);
+        connections.add(spectator);
+
+        Game game = new Game(1, "white", "black", "game", new ChessGame());
+        for (int i = 0; i < 100; i++) {
+            connections.broadcast("", new LoadGameMessage(game), 1);
+            connections.broadcast("", new NotificationMessage("move " + i), 1);
+        }
+
+        assertEquals(200, white.size());
+        // the stalled spectator only ever held one board, and was cut off once the
+        // move notifications filled its queue
+        assertEquals(1, spectator.written.size());
+        assertFalse(spectator.isOpen());
+        assertEquals(1, connections.getRoomSize(1));
+    }
+
+    /**
+     * Records writes but doesn't finish them until told to, like a client that has
+     * stopped reading
+     */
+    private static class StalledConnection extends Connection {
+        private final List<String> written = new ArrayList<>();
+        private final ArrayDeque<WriteCallback> pending = new ArrayDeque<>();
+
+        StalledConnection(int queueLimit, OverflowPolicy overflowPolicy) {
+            super("spectator", null, 1, queueLimit, overflowPolicy);
+        }
+
+        @Override
+        protected void write(String msg, WriteCallback callback) {
+            written.add(msg);
+            pending.add(callback);
+        }
+
+        void finishWrites() {
+            while (!pending.isEmpty()) {
+                pending.poll().writeSuccess();
+            }
+        }
+    }
+}
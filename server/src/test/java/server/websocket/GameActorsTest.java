@@ -0,0 +1,139 @@
+package server.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameActorsTest {
+    private final GameActors actors = new GameActors();
+
+    @AfterEach
+    void stop() {
+        actors.close();
+    }
+
+    @Test
+    void aGamesTasksRunOneAtATimeInOrder() throws InterruptedException {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            int task = i;
+            actors.submit(1, () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                order.add(task);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void differentGamesRunInParallel() throws InterruptedException {
+        CountDownLatch otherGameRan = new CountDownLatch(1);
+        CountDownLatch firstGameFinished = new CountDownLatch(1);
+        actors.submit(1, () -> {
+            // only finishes if game 2's task runs while this one is still waiting
+            if (otherGameRan.await(10, TimeUnit.SECONDS)) {
+                firstGameFinished.countDown();
+            }
+        });
+        actors.submit(2, otherGameRan::countDown);
+
+        assertTrue(firstGameFinished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void aFailedTaskDoesNotStopTheGame() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        actors.submit(1, () -> {
+            throw new IllegalStateException("bad command");
+        });
+        actors.submit(1, ran::countDown);
+
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void idleGamesAreRetired() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        actors.submit(1, release::await);
+        actors.submit(2, () -> {
+        });
+        assertTrue(actors.getActiveGames() >= 1);
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (actors.getActiveGames() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, actors.getActiveGames());
+    }
+
+    @Test
+    void closeFinishesQueuedTasks() {
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            actors.submit(i % 4, ran::incrementAndGet);
+        }
+        actors.close();
+        assertEquals(100, ran.get());
+    }
+
+    @Test
+    void runWaitsBehindTheGamesTasks() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        actors.submit(1, () -> {
+            release.await();
+            order.add(1);
+        });
+        release.countDown();
+        actors.run(1, () -> order.add(2));
+        assertEquals(List.of(1, 2), order);
+
+        assertThrows(IllegalStateException.class, () -> actors.run(1, () -> {
+            throw new IllegalStateException("bad update");
+        }));
+    }
+
+    @Test
+    void runFromTheGamesOwnActorRunsStraightAway() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        actors.run(1, () -> {
+            actors.run(1, () -> order.add(1));
+            order.add(2);
+        });
+        assertEquals(List.of(1, 2), order);
+
+        assertThrows(IllegalStateException.class, () -> actors.run(1, () -> actors.run(2, () -> {
+        })));
+    }
+
+    @Test
+    void tasksAfterCloseAreDropped() {
+        actors.close();
+        AtomicInteger ran = new AtomicInteger();
+
+        assertFalse(actors.submit(1, ran::incrementAndGet));
+        assertEquals(0, actors.getActiveGames());
+        assertEquals(0, ran.get());
+    }
+}
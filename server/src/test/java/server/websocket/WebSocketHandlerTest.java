@@ -0,0 +1,62 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import exception.ResponseException;
+import model.Auth;
+import model.Game;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import serialization.ChessGson;
+import websocket.commands.MakeMoveCommand;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebSocketHandlerTest {
+    private final MemoryAuthDAO authDAO = new MemoryAuthDAO();
+    private final MemoryGameDAO gameDAO = new MemoryGameDAO();
+    private final WebSocketHandler handler = new WebSocketHandler(gameDAO, authDAO);
+
+    @AfterEach
+    void close() {
+        handler.close();
+    }
+
+    @Test
+    void aCommandThatFailsIsAnsweredWithAnError() throws IOException, ResponseException {
+        authDAO.createAuth(new Auth("token", "white"));
+        int missingGame = gameDAO.createGame(new Game(0, "white", null, "game", new ChessGame())).gameID() + 1;
+        RecordingConnection sender = new RecordingConnection();
+
+        ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        handler.onMessage(sender, ChessGson.get().toJson(new MakeMoveCommand(e4, "token", missingGame)));
+        handler.close();
+
+        assertEquals(1, sender.messages.size());
+        ServerMessage reply = ChessGson.get().fromJson(sender.messages.get(0), ServerMessage.class);
+        assertEquals(ServerMessage.ServerMessageType.ERROR, reply.getServerMessageType());
+    }
+
+    private static class RecordingConnection extends Connection {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        RecordingConnection() {
+            super(null, null, 0);
+        }
+
+        @Override
+        protected void write(String msg, WriteCallback callback) {
+            messages.add(msg);
+            callback.writeSuccess();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights as a 4-bit mask, one bit per side per team. A right is lost for good
+ * once the king or that rook moves, or the rook is captured, so after every move the
+ * rights are ANDed with the masks of the move's two squares.
+ */
+public final class Castling {
+    public static final int NONE = 0;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL = 15;
+
+    public static final int WHITE_KING_SQUARE = 4;
+    public static final int BLACK_KING_SQUARE = 60;
+
+    private static final int[] KEPT_RIGHTS = new int[64];
+
+    static {
+        Arrays.fill(KEPT_RIGHTS, ALL);
+        KEPT_RIGHTS[WHITE_KING_SQUARE] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEPT_RIGHTS[BLACK_KING_SQUARE] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        KEPT_RIGHTS[rookSquare(WHITE_KINGSIDE)] = ALL & ~WHITE_KINGSIDE;
+        KEPT_RIGHTS[rookSquare(WHITE_QUEENSIDE)] = ALL & ~WHITE_QUEENSIDE;
+        KEPT_RIGHTS[rookSquare(BLACK_KINGSIDE)] = ALL & ~BLACK_KINGSIDE;
+        KEPT_RIGHTS[rookSquare(BLACK_QUEENSIDE)] = ALL & ~BLACK_QUEENSIDE;
+    }
+
+    private Castling() {
+    }
+
+    /**
+     * @return the rights left after a move between the two squares
+     */
+    public static int afterMove(int castlingRights, int from, int to) {
+        return castlingRights & KEPT_RIGHTS[from] & KEPT_RIGHTS[to];
+    }
+
+    public static int kingside(ChessGame.TeamColor color) {
+        return (color == ChessGame.TeamColor.WHITE) ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+    }
+
+    public static int queenside(ChessGame.TeamColor color) {
+        return (color == ChessGame.TeamColor.WHITE) ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+    }
+
+    public static int kingSquare(ChessGame.TeamColor color) {
+        return (color == ChessGame.TeamColor.WHITE) ? WHITE_KING_SQUARE : BLACK_KING_SQUARE;
+    }
+
+    /**
+     * @param right exactly one of the four right bits
+     * @return the home square of the rook that castles with that right
+     */
+    public static int rookSquare(int right) {
+        return switch (right) {
+            case WHITE_KINGSIDE -> 7;
+            case WHITE_QUEENSIDE -> 0;
+            case BLACK_KINGSIDE -> 63;
+            case BLACK_QUEENSIDE -> 56;
+            default -> throw new IllegalArgumentException("Not a single castling right: " + right);
+        };
+    }
+
+    /**
+     * @param right exactly one of the four right bits
+     * @return the square the king lands on when castling with that right
+     */
+    public static int kingTarget(int right) {
+        return switch (right) {
+            case WHITE_KINGSIDE -> 6;
+            case WHITE_QUEENSIDE -> 2;
+            case BLACK_KINGSIDE -> 62;
+            case BLACK_QUEENSIDE -> 58;
+            default -> throw new IllegalArgumentException("Not a single castling right: " + right);
+        };
+    }
+
+    /**
+     * Infers the rights of a board whose history is unknown, such as one given to
+     * ChessGame.setBoard: a side may castle if its king and that rook are on their home
+     * squares.
+     */
+    public static int fromBoard(ChessBoard board) {
+        int rights = NONE;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            if (!ChessPiece.of(color, ChessPiece.PieceType.KING).equals(board.getPiece(kingSquare(color)))) {
+                continue;
+            }
+            for (int right : new int[]{kingside(color), queenside(color)}) {
+                if (ChessPiece.of(color, ChessPiece.PieceType.ROOK).equals(board.getPiece(rookSquare(right)))) {
+                    rights |= right;
+                }
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * @return True if a move from from to to is a castle rather than a normal king move
+     */
+    public static boolean isCastle(ChessPiece movedPiece, int from, int to) {
+        return movedPiece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2;
+    }
+}
@@ -1,8 +1,9 @@
 package chess;
 
+import chess.piecemoves.AttackTables;
+
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -14,11 +15,37 @@ public class ChessBoard {
 
     private final ChessPiece[][] squares;
 
+    /*
+     * Bitboard index over squares: one long per color/piece type plus one occupancy
+     * mask per color. Bit 0 is a1 (row 1, column 1) and bit 63 is h8. The index is
+     * transient so the serialized form stays the squares array; it is rebuilt from
+     * squares the first time it is needed after deserialization. The Zobrist key of the
+     * piece placement is kept alongside it.
+     */
+    private transient long[] pieceBitboards;
+    private transient long[] colorOccupancy;
+    private transient long zobristKey;
+
 
     public ChessBoard() {
         squares = new ChessPiece[8][8];
     }
 
+    /**
+     * Creates an independent copy of another board
+     */
+    public ChessBoard(ChessBoard other) {
+        squares = new ChessPiece[8][];
+        for (int row = 0; row < 8; row++) {
+            squares[row] = other.squares[row].clone();
+        }
+        if (other.pieceBitboards != null) {
+            pieceBitboards = other.pieceBitboards.clone();
+            colorOccupancy = other.colorOccupancy.clone();
+            zobristKey = other.zobristKey;
+        }
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -26,34 +53,179 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        setPiece(squareOf(position), piece);
     }
 
-    public ChessPosition getKingOnBoardPosition(ChessPiece piece) {
-        for (int row = 0; row < 8; row++) {
-            for (int column = 0; column < 8; column++) {
-                ChessPosition position = new ChessPosition(row + 1, column + 1);
-                if (getPiece(position) == piece) {
-                    return position;
-                }
+    /**
+     * Puts a piece on a square by index (0 = a1, 63 = h8), replacing whatever was there
+     *
+     * @param piece the piece to add, or null to empty the square
+     */
+    public void setPiece(int square, ChessPiece piece) {
+        int row = square >>> 3;
+        int col = square & 7;
+        if (pieceBitboards != null) {
+            long bit = 1L << square;
+            ChessPiece oldPiece = squares[row][col];
+            if (oldPiece != null) {
+                pieceBitboards[bitboardIndex(oldPiece.getTeamColor(), oldPiece.getPieceType())] &= ~bit;
+                colorOccupancy[oldPiece.getTeamColor().ordinal()] &= ~bit;
+                zobristKey ^= Zobrist.pieceKey(oldPiece.getTeamColor(), oldPiece.getPieceType(), square);
             }
+            if (piece != null) {
+                pieceBitboards[bitboardIndex(piece.getTeamColor(), piece.getPieceType())] |= bit;
+                colorOccupancy[piece.getTeamColor().ordinal()] |= bit;
+                zobristKey ^= Zobrist.pieceKey(piece.getTeamColor(), piece.getPieceType(), square);
+            }
+        }
+        squares[row][col] = piece;
+    }
+
+    public ChessPosition getKingOnBoardPosition(ChessPiece piece) {
+        long pieces = getPieceBitboard(piece.getTeamColor(), piece.getPieceType());
+        if (pieces == 0) {
+            return null;
         }
-        return null;
+        return positionOf(Long.numberOfTrailingZeros(pieces));
     }
 
     public ArrayList<ChessPiece> getAllChessCurrPieces(ChessGame.TeamColor teamColor) {
         ArrayList<ChessPiece> currPieces = new ArrayList<>();
-        for (int row = 0; row < 8; row++) {
-            for (int column = 0; column < 8; column++) {
-                ChessPiece piece = squares[row][column];
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    currPieces.add(piece);
-                }
-            }
+        for (long pieces = getOccupancy(teamColor); pieces != 0; pieces &= pieces - 1) {
+            currPieces.add(getPiece(Long.numberOfTrailingZeros(pieces)));
         }
         return currPieces;
     }
 
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long getPieceBitboard(ChessGame.TeamColor teamColor, ChessPiece.PieceType type) {
+        ensureIndexed();
+        return pieceBitboards[bitboardIndex(teamColor, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long getOccupancy(ChessGame.TeamColor teamColor) {
+        ensureIndexed();
+        return colorOccupancy[teamColor.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        ensureIndexed();
+        return colorOccupancy[0] | colorOccupancy[1];
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement, updated on every addPiece. It does not
+     * include the side to move or other game state; see {@link ChessGame#getZobristKey()}.
+     */
+    public long getZobristKey() {
+        ensureIndexed();
+        return zobristKey;
+    }
+
+    /**
+     * Gets a chess piece by square index (0 = a1, 63 = h8)
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[square >>> 3][square & 7];
+    }
+
+    /**
+     * Finds the pieces of the given color attacking a square by looking outward from it:
+     * along rook and bishop rays, at knight and king jumps, and at the two pawn diagonals
+     *
+     * @param square   the attacked square (0 = a1, 63 = h8)
+     * @param attacker which team's pieces to look for
+     * @return bitboard of the attacking pieces' squares
+     */
+    public long attackersTo(int square, ChessGame.TeamColor attacker) {
+        return attackersTo(square, attacker, getOccupancy());
+    }
+
+    /**
+     * Same as {@link #attackersTo(int, ChessGame.TeamColor)}, but sliding pieces are blocked by
+     * the given occupancy instead of the board's. Used to ask whether a square would be
+     * attacked once a piece has moved off of a ray.
+     */
+    public long attackersTo(int square, ChessGame.TeamColor attacker, long occupancy) {
+        ensureIndexed();
+        int base = attacker.ordinal() * 6;
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long defenderPawnAttacks = AttackTables.pawnAttacks(
+                attacker == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE, square);
+
+        return (AttackTables.knightAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (AttackTables.kingAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()])
+                | (defenderPawnAttacks & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (AttackTables.rookAttacks(square, occupancy)
+                        & (pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (AttackTables.bishopAttacks(square, occupancy)
+                        & (pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * @return True if any piece of the attacking team attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor attacker) {
+        return attackersTo(square, attacker) != 0;
+    }
+
+    /**
+     * @return the board as a FEN piece placement field, e.g.
+     * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"
+     */
+    public String toFen() {
+        return Fen.formatBoard(this);
+    }
+
+    /**
+     * Creates a board from a FEN piece placement field
+     *
+     * @throws IllegalArgumentException if placement is not 8 rows of 8 squares
+     */
+    public static ChessBoard fromFen(String placement) {
+        return Fen.parseBoard(placement);
+    }
+
+    public static int squareOf(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    public static ChessPosition positionOf(int square) {
+        return ChessPosition.of(square);
+    }
+
+    private static int bitboardIndex(ChessGame.TeamColor teamColor, ChessPiece.PieceType type) {
+        return teamColor.ordinal() * 6 + type.ordinal();
+    }
+
+    private void ensureIndexed() {
+        if (pieceBitboards != null) {
+            return;
+        }
+        long[] bitboards = new long[12];
+        long[] occupancy = new long[2];
+        long key = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece != null) {
+                bitboards[bitboardIndex(piece.getTeamColor(), piece.getPieceType())] |= 1L << square;
+                occupancy[piece.getTeamColor().ordinal()] |= 1L << square;
+                key ^= Zobrist.pieceKey(piece.getTeamColor(), piece.getPieceType(), square);
+            }
+        }
+        zobristKey = key;
+        colorOccupancy = occupancy;
+        pieceBitboards = bitboards;
+    }
+
 
     /**
      * Gets a chess piece on the chessboard
@@ -80,40 +252,40 @@ public class ChessBoard {
 
     public void setUpBlackSideOfBoard() {
         //setup rooks
-        ChessPiece blackRook = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        ChessPosition firstBlackRookPosition = new ChessPosition(8, 1);
-        ChessPosition secondBlackRookPosition = new ChessPosition(8, 8);
+        ChessPiece blackRook = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        ChessPosition firstBlackRookPosition = ChessPosition.of(8, 1);
+        ChessPosition secondBlackRookPosition = ChessPosition.of(8, 8);
         addPiece(firstBlackRookPosition, blackRook);
         addPiece(secondBlackRookPosition, blackRook);
 
         //setup knights
-        ChessPiece blackKnight = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        ChessPosition firstBlackKnightPosition = new ChessPosition(8, 2);
-        ChessPosition secondBlackKnightPosition = new ChessPosition(8, 7);
+        ChessPiece blackKnight = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        ChessPosition firstBlackKnightPosition = ChessPosition.of(8, 2);
+        ChessPosition secondBlackKnightPosition = ChessPosition.of(8, 7);
         addPiece(firstBlackKnightPosition, blackKnight);
         addPiece(secondBlackKnightPosition, blackKnight);
 
         //setupBishops
-        ChessPiece blackBishop = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        ChessPosition firstBlackBishopPosition = new ChessPosition(8, 3);
-        ChessPosition secondBlackBishopPosition = new ChessPosition(8, 6);
+        ChessPiece blackBishop = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        ChessPosition firstBlackBishopPosition = ChessPosition.of(8, 3);
+        ChessPosition secondBlackBishopPosition = ChessPosition.of(8, 6);
         addPiece(firstBlackBishopPosition, blackBishop);
         addPiece(secondBlackBishopPosition, blackBishop);
 
         //setupQueen
-        ChessPiece blackQueen = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        ChessPosition blackQueenPosition = new ChessPosition(8, 4);
+        ChessPiece blackQueen = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        ChessPosition blackQueenPosition = ChessPosition.of(8, 4);
         addPiece(blackQueenPosition, blackQueen);
 
         //setupKing
-        ChessPiece blackKing = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        ChessPosition blackKingPosition = new ChessPosition(8, 5);
+        ChessPiece blackKing = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        ChessPosition blackKingPosition = ChessPosition.of(8, 5);
         addPiece(blackKingPosition, blackKing);
 
         //setupPawns
-        ChessPiece blackPawn = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        ChessPiece blackPawn = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
         for (int col = 1; col < 9; col++) {
-            ChessPosition blackPawnPosition = new ChessPosition(7, col);
+            ChessPosition blackPawnPosition = ChessPosition.of(7, col);
             addPiece(blackPawnPosition, blackPawn);
         }
 
@@ -122,40 +294,40 @@ public class ChessBoard {
 
     void setUpWhiteSideOfBoard() {
         //setup rooks
-        ChessPiece whiteRook = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        ChessPosition firstWhiteRookPosition = new ChessPosition(1, 1);
-        ChessPosition secondWhiteRookPosition = new ChessPosition(1, 8);
+        ChessPiece whiteRook = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        ChessPosition firstWhiteRookPosition = ChessPosition.of(1, 1);
+        ChessPosition secondWhiteRookPosition = ChessPosition.of(1, 8);
         addPiece(firstWhiteRookPosition, whiteRook);
         addPiece(secondWhiteRookPosition, whiteRook);
 
         //setup knights
-        ChessPiece whiteKnight = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        ChessPosition firstWhiteKnightPosition = new ChessPosition(1, 2);
-        ChessPosition secondWhiteKnightPosition = new ChessPosition(1, 7);
+        ChessPiece whiteKnight = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        ChessPosition firstWhiteKnightPosition = ChessPosition.of(1, 2);
+        ChessPosition secondWhiteKnightPosition = ChessPosition.of(1, 7);
         addPiece(firstWhiteKnightPosition, whiteKnight);
         addPiece(secondWhiteKnightPosition, whiteKnight);
 
         //setupBishops
-        ChessPiece whiteBishop = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        ChessPosition firstWhiteBishopPosition = new ChessPosition(1, 3);
-        ChessPosition secondWhiteBishopPosition = new ChessPosition(1, 6);
+        ChessPiece whiteBishop = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        ChessPosition firstWhiteBishopPosition = ChessPosition.of(1, 3);
+        ChessPosition secondWhiteBishopPosition = ChessPosition.of(1, 6);
         addPiece(firstWhiteBishopPosition, whiteBishop);
         addPiece(secondWhiteBishopPosition, whiteBishop);
 
         //setupQueen
-        ChessPiece whiteQueen = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        ChessPosition whiteQueenPosition = new ChessPosition(1, 4);
+        ChessPiece whiteQueen = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        ChessPosition whiteQueenPosition = ChessPosition.of(1, 4);
         addPiece(whiteQueenPosition, whiteQueen);
 
         //setupKing
-        ChessPiece whiteKing = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        ChessPosition whiteKingPosition = new ChessPosition(1, 5);
+        ChessPiece whiteKing = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        ChessPosition whiteKingPosition = ChessPosition.of(1, 5);
         addPiece(whiteKingPosition, whiteKing);
 
         //setupPawns
-        ChessPiece whitePawn = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        ChessPiece whitePawn = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         for (int col = 1; col < 9; col++) {
-            ChessPosition whitePawnPosition = new ChessPosition(2, col);
+            ChessPosition whitePawnPosition = ChessPosition.of(2, col);
             addPiece(whitePawnPosition, whitePawn);
         }
 
@@ -171,12 +343,14 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        ensureIndexed();
+        that.ensureIndexed();
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(getZobristKey());
     }
 
     @Override
@@ -1,5 +1,8 @@
 package chess;
 
+import chess.piecemoves.AttackTables;
+import chess.piecemoves.LegalMoveGenerator;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
@@ -11,15 +14,63 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessGame {
+    /**
+     * The en passant square when the last move was not a double pawn push
+     */
+    public static final int NO_EN_PASSANT = -1;
+
     private TeamColor teamTurn;
     private ChessBoard board;
     boolean gameOver;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    private final transient UndoStack undoStack = new UndoStack();
+    private final transient DrawDetector drawDetector;
+    private transient GameStatus status;
+    private transient long statusKey;
 
     public ChessGame() {
         teamTurn = TeamColor.WHITE;
         board = new ChessBoard();
         board.resetBoard();
+        castlingRights = Castling.ALL;
+        enPassantSquare = NO_EN_PASSANT;
+        fullmoveNumber = 1;
+        drawDetector = new DrawDetector();
+    }
 
+    /**
+     * Creates an independent copy of another game, with its own board
+     */
+    public ChessGame(ChessGame other) {
+        teamTurn = other.teamTurn;
+        board = new ChessBoard(other.board);
+        gameOver = other.gameOver;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        drawDetector = new DrawDetector(other.drawDetector);
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation, e.g.
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1". The castling,
+     * en passant and move counter fields may be left off.
+     *
+     * @throws IllegalArgumentException if fen is not a valid position
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.format(this);
     }
 
     public boolean getGameOver() {
@@ -45,6 +96,56 @@ public class ChessGame {
         teamTurn = team;
     }
 
+    /**
+     * @return the castling rights still available, as a mask of the {@link Castling} bits
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn of the team to move can capture en passant onto
+     * (0 = a1, 63 = h8), or NO_EN_PASSANT. It is only set when an enemy pawn is
+     * actually next to the pawn that double moved.
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move, for the fifty
+     * move rule
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and counting up after
+     * each of black's moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Restores the state that is not visible on the board, for FEN, snapshot and JSON
+     * decoding. Call it after setBoard and setTeamTurn. The en passant square is
+     * dropped unless a pawn of the team to move can capture onto it.
+     */
+    public void setPositionState(int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = NO_EN_PASSANT;
+        if (enPassantSquare != NO_EN_PASSANT) {
+            long pawns = board.getPieceBitboard(teamTurn, ChessPiece.PieceType.PAWN);
+            if ((AttackTables.pawnAttacks(opposingTeam(teamTurn), enPassantSquare) & pawns) != 0) {
+                this.enPassantSquare = enPassantSquare;
+            }
+        }
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -53,12 +154,32 @@ public class ChessGame {
         if (!(o instanceof ChessGame chessGame)) {
             return false;
         }
-        return teamTurn == chessGame.teamTurn && Objects.equals(board, chessGame.board);
+        return teamTurn == chessGame.teamTurn && castlingRights == chessGame.castlingRights
+                && enPassantSquare == chessGame.enPassantSquare && Objects.equals(board, chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        return Long.hashCode(getZobristKey());
+    }
+
+    /**
+     * Gets the 64-bit Zobrist key of the current position: the board's piece placement
+     * plus the team to move, castling rights and en passant file. Equal positions always have equal keys, so it can be used
+     * as a transposition or repetition key.
+     *
+     * @return the position key
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey();
+        if (teamTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMoveKey();
+        }
+        key ^= Zobrist.castlingKey(castlingRights);
+        if (enPassantSquare != NO_EN_PASSANT) {
+            key ^= Zobrist.enPassantKey(enPassantSquare & 7);
+        }
+        return key;
     }
 
     /**
@@ -78,36 +199,114 @@ public class ChessGame {
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = board.getPiece(startPosition);
-        TeamColor teamColor = piece.getTeamColor();
-
+        if (piece == null) {
+            return null;
+        }
+        MoveList moves = new MoveList();
+        generatorFor(piece.getTeamColor()).addLegalMoves(ChessBoard.squareOf(startPosition), moves);
+        return moves.toChessMoves();
+    }
 
-        ArrayList<ChessMove> validMoves = new ArrayList<>();
-        Collection<ChessMove> pieceMoves = piece.pieceMoves(board, startPosition);
-        for (ChessMove move : pieceMoves) {
-            ChessPosition endPosition = move.getEndPosition();
-            ChessPiece endPiece = board.getPiece(endPosition);
 
-            //make move
-            makeOrUndoTempMove(startPosition, endPosition, piece, null);
+    /**
+     * Gets every valid move of the team whose turn it is
+     *
+     * @return Set of valid moves for every piece of the current team
+     */
+    public Collection<ChessMove> validMoves() {
+        MoveList moves = new MoveList();
+        legalMoves(moves);
+        return moves.toChessMoves();
+    }
 
-            boolean inCheck = isInCheck(teamColor);
+    /**
+     * Clears moves and fills it with every legal move of the team whose turn it is, in
+     * {@link Move}'s int encoding. Reusing one list per ply lets search and perft walk
+     * the game tree without allocating move objects.
+     */
+    public void legalMoves(MoveList moves) {
+        moves.clear();
+        generatorFor(teamTurn).generate(moves);
+    }
 
-            //undo temp move
-            makeOrUndoTempMove(endPosition, startPosition, piece, endPiece);
+    private LegalMoveGenerator generatorFor(TeamColor teamColor) {
+        int enPassant = (teamColor == teamTurn) ? enPassantSquare : NO_EN_PASSANT;
+        return new LegalMoveGenerator(board, teamColor, castlingRights, enPassant);
+    }
 
-            if (!inCheck) {
-                validMoves.add(move);
+    /**
+     * Gets whether the team to move is in check, checkmate or stalemate, and how many
+     * legal moves it has. The status is worked out with one pass of the move generator
+     * and kept until the position's Zobrist key changes, so asking again for the same
+     * position is free.
+     *
+     * @return the status of the current position
+     */
+    public GameStatus getStatus() {
+        long key = getZobristKey();
+        if (status == null || statusKey != key) {
+            LegalMoveGenerator generator = generatorFor(teamTurn);
+            int legalMoveCount = generator.countLegalMoves();
+            GameStatus.Type type;
+            if (generator.inCheck()) {
+                type = (legalMoveCount == 0) ? GameStatus.Type.CHECKMATE : GameStatus.Type.CHECK;
+            } else {
+                type = (legalMoveCount == 0) ? GameStatus.Type.STALEMATE : GameStatus.Type.NORMAL;
             }
+            status = new GameStatus(type, legalMoveCount);
+            statusKey = key;
+        }
+        return status;
+    }
+
+    /**
+     * @return how many times the current position has occurred in this game, counting
+     * the current occurrence. Positions count as the same when the pieces, the team to
+     * move, the castling rights and any en passant capture all match.
+     */
+    public int getRepetitionCount() {
+        return 1 + drawDetector.count(getZobristKey());
+    }
 
+    /**
+     * Checks the draws that end a game even though moves remain: the position has
+     * occurred three times, fifty moves by each side have passed without a capture or
+     * pawn move, or neither side can ever checkmate. Each check takes constant time.
+     * A move that checkmates wins even if it also meets one of these.
+     *
+     * @return why the game is drawn, or null if it is not
+     */
+    public DrawReason getDrawReason() {
+        if (getRepetitionCount() >= 3) {
+            return DrawReason.THREEFOLD_REPETITION;
+        }
+        if (halfmoveClock >= 100) {
+            return DrawReason.FIFTY_MOVE_RULE;
+        }
+        if (DrawDetector.hasInsufficientMaterial(board)) {
+            return DrawReason.INSUFFICIENT_MATERIAL;
         }
-        return validMoves;
+        return null;
     }
 
-    void makeOrUndoTempMove(ChessPosition startPosition, ChessPosition endPosition, ChessPiece piece, ChessPiece endPiece) {
-        board.addPiece(endPosition, piece);
-        board.addPiece(startPosition, endPiece);
+    /**
+     * @return the Zobrist keys of the earlier positions that the current one could
+     * still repeat, oldest first: those since the last capture or pawn move
+     */
+    public long[] getRepetitionHistory() {
+        return drawDetector.newest(halfmoveClock);
     }
 
+    /**
+     * Replaces the remembered earlier positions, e.g. with the keys from
+     * getRepetitionHistory of a game being restored from storage
+     */
+    public void setRepetitionHistory(long[] keys) {
+        drawDetector.clear();
+        for (long key : keys) {
+            drawDetector.push(key);
+        }
+    }
 
     /**
      * Makes a move in a chess game
@@ -132,18 +331,129 @@ public class ChessGame {
             if (currTeamTurn != piece.getTeamColor()) {
                 throw new InvalidMoveException("Wrong team turn: " + move);
             }
-            if (move.getPromotionPiece() != null) {
-                board.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
-            } else {
-                board.addPiece(move.getEndPosition(), piece);
-            }
-            board.addPiece(move.getStartPosition(), null);
+            playMove(ChessBoard.squareOf(move.getStartPosition()), ChessBoard.squareOf(move.getEndPosition()),
+                    move.getPromotionPiece());
 
 
             TeamColor nextTeamTurn = (currTeamTurn == TeamColor.BLACK) ? TeamColor.WHITE : TeamColor.BLACK;
             setTeamTurn(nextTeamTurn);
+            status = null;
+
+        }
+    }
+
+    /**
+     * Plays a move without checking that it is legal, and remembers how to take it back
+     * with {@link #undoMove()}. Meant for search and perft, which only play moves from
+     * the legal move generator. Unlike makeMove, this allocates nothing.
+     *
+     * @param move the move in {@link Move}'s int encoding
+     */
+    public void doMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        undoStack.push(move, board.getPiece(from), board.getPiece(to), castlingRights, enPassantSquare, halfmoveClock);
+        playMove(from, to, Move.promotion(move));
+        teamTurn = opposingTeam(teamTurn);
+    }
+
+    /**
+     * Takes back the last move made with {@link #doMove(int)}
+     *
+     * @throws IllegalStateException if there is no move to undo
+     */
+    public void undoMove() {
+        undoStack.pop();
+        int top = undoStack.size();
+        int move = undoStack.move(top);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece movedPiece = undoStack.movedPiece(top);
+        int previousEnPassant = undoStack.enPassantSquare(top);
+
+        board.setPiece(from, movedPiece);
+        board.setPiece(to, undoStack.capturedPiece(top));
+        if (movedPiece.getPieceType() == ChessPiece.PieceType.PAWN && to == previousEnPassant) {
+            board.setPiece(enPassantCaptureSquare(from, to),
+                    ChessPiece.of(opposingTeam(movedPiece.getTeamColor()), ChessPiece.PieceType.PAWN));
+        } else if (Castling.isCastle(movedPiece, from, to)) {
+            int rookFrom = castlingRookFrom(from, to);
+            int rookTo = (from + to) / 2;
+            board.setPiece(rookFrom, board.getPiece(rookTo));
+            board.setPiece(rookTo, null);
+        }
+        castlingRights = undoStack.castlingRights(top);
+        enPassantSquare = previousEnPassant;
+        drawDetector.pop();
+        halfmoveClock = undoStack.halfmoveClock(top);
+        teamTurn = opposingTeam(teamTurn);
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * @return how many doMove calls can currently be undone
+     */
+    public int getUndoDepth() {
+        return undoStack.size();
+    }
 
+    /**
+     * Moves the piece on from to to, including the rook of a castle and the pawn taken
+     * en passant, and updates the castling rights, en passant square and move counters.
+     * The turn is left to the caller.
+     */
+    private void playMove(int from, int to, ChessPiece.PieceType promotion) {
+        drawDetector.push(getZobristKey());
+        ChessPiece piece = board.getPiece(from);
+        int previousEnPassant = enPassantSquare;
+        enPassantSquare = NO_EN_PASSANT;
+        castlingRights = Castling.afterMove(castlingRights, from, to);
+        boolean resetsClock = piece.getPieceType() == ChessPiece.PieceType.PAWN || board.getPiece(to) != null;
+        halfmoveClock = resetsClock ? 0 : halfmoveClock + 1;
+        if (piece.getTeamColor() == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
+
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (to == previousEnPassant) {
+                board.setPiece(enPassantCaptureSquare(from, to), null);
+            } else if (Math.abs(to - from) == 16) {
+                int skipped = (from + to) / 2;
+                long enemyPawns = board.getPieceBitboard(opposingTeam(piece.getTeamColor()), ChessPiece.PieceType.PAWN);
+                if ((AttackTables.pawnAttacks(piece.getTeamColor(), skipped) & enemyPawns) != 0) {
+                    enPassantSquare = skipped;
+                }
+            }
+        } else if (Castling.isCastle(piece, from, to)) {
+            int rookFrom = castlingRookFrom(from, to);
+            board.setPiece((from + to) / 2, board.getPiece(rookFrom));
+            board.setPiece(rookFrom, null);
+        }
+        movePiece(from, to, promotion);
+    }
+
+    /**
+     * @return the square of the pawn taken by an en passant capture: the capturing
+     * pawn's row and the target's column
+     */
+    private static int enPassantCaptureSquare(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    private static int castlingRookFrom(int kingFrom, int kingTo) {
+        return (kingTo > kingFrom) ? kingFrom + 3 : kingFrom - 4;
+    }
+
+    private void movePiece(int from, int to, ChessPiece.PieceType promotion) {
+        ChessPiece piece = board.getPiece(from);
+        if (promotion != null) {
+            board.setPiece(to, ChessPiece.of(piece.getTeamColor(), promotion));
+        } else {
+            board.setPiece(to, piece);
+        }
+        board.setPiece(from, null);
     }
 
     /**
@@ -153,7 +463,8 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        return !findAttackersPositions(teamColor).isEmpty();
+        long kings = board.getPieceBitboard(teamColor, ChessPiece.PieceType.KING);
+        return kings != 0 && board.isSquareAttacked(Long.numberOfTrailingZeros(kings), opposingTeam(teamColor));
     }
 
 
@@ -165,6 +476,9 @@ public class ChessGame {
      */
 
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == teamTurn) {
+            return getStatus().type() == GameStatus.Type.CHECKMATE;
+        }
         if (isInCheck(teamColor)) {
             return hasNoMovesLeft(teamColor);
 
@@ -174,59 +488,34 @@ public class ChessGame {
     }
 
     private boolean hasNoMovesLeft(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if ((piece != null) && teamColor == piece.getTeamColor()) {
-                    if (!validMoves(position).isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-
-        }
-        return true;
+        return !generatorFor(teamColor).hasLegalMove();
     }
 
 
     public ArrayList<ChessPosition> findAttackersPositions(TeamColor teamColor) {
         ArrayList<ChessPosition> attackers = new ArrayList<>();
-        ChessPosition myKingPosition = getKingPosition(teamColor);
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition opposingPiecePosition = new ChessPosition(row, col);
-
-                ChessPiece opposingChessPiece = board.getPiece(opposingPiecePosition);
-                if (opposingChessPiece != null && opposingChessPiece.getTeamColor() != teamColor) {
-                    getAttackers(attackers, opposingPiecePosition, opposingChessPiece, myKingPosition);
+        long kings = board.getPieceBitboard(teamColor, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            return attackers;
+        }
 
-                }
-            }
+        long attackerSquares = board.attackersTo(Long.numberOfTrailingZeros(kings), opposingTeam(teamColor));
+        for (; attackerSquares != 0; attackerSquares &= attackerSquares - 1) {
+            attackers.add(ChessBoard.positionOf(Long.numberOfTrailingZeros(attackerSquares)));
         }
         return attackers;
     }
 
-    public void getAttackers(ArrayList<ChessPosition> attackers, ChessPosition opposingPiecePosition,
-                             ChessPiece opposingChessPiece, ChessPosition myKingPosition) {
-        Collection<ChessMove> opposingChessPieceMoves = opposingChessPiece.pieceMoves(board, opposingPiecePosition);
-
-        for (ChessMove move : opposingChessPieceMoves) {
-            if (move.getEndPosition().equals(myKingPosition)) {
-                attackers.add(opposingPiecePosition);
-
-            }
-        }
+    private static TeamColor opposingTeam(TeamColor teamColor) {
+        return (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     public ChessPosition getKingPosition(TeamColor teamColor) {
-        for (ChessPiece piece : board.getAllChessCurrPieces(teamColor)) {
-            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-                return board.getKingOnBoardPosition(piece);
-            }
+        long kings = board.getPieceBitboard(teamColor, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            return null;
         }
-        return null;
+        return ChessBoard.positionOf(Long.numberOfTrailingZeros(kings));
     }
 
 
@@ -238,6 +527,9 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == teamTurn) {
+            return getStatus().type() == GameStatus.Type.STALEMATE;
+        }
         if (!isInCheck(teamColor)) {
             return hasNoMovesLeft(teamColor);
 
@@ -247,12 +539,20 @@ public class ChessGame {
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. Since the board's history is
+     * unknown, each side may castle if its king and rook are on their home squares,
+     * there is no en passant capture, and no earlier positions count for repetition.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        castlingRights = Castling.fromBoard(board);
+        enPassantSquare = NO_EN_PASSANT;
+        halfmoveClock = 0;
+        status = null;
+        undoStack.clear();
+        drawDetector.clear();
     }
 
     /**
@@ -1,6 +1,6 @@
 package chess;
 
-import chess.piecemoves.*;
+import chess.piecemoves.BitboardMoveGenerator;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -16,11 +16,34 @@ public class ChessPiece {
     private final ChessGame.TeamColor pieceColor;
     private final ChessPiece.PieceType type;
 
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Returns the shared instance of a piece. Pieces are immutable, so boards, promotions
+     * and deserialization can all point at the same twelve objects.
+     *
+     * @return the shared piece, or a new one if color or type is null
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        if (pieceColor == null || type == null) {
+            return new ChessPiece(pieceColor, type);
+        }
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
     @Override
     public String toString() {
         return "ChessPiece{" +
@@ -81,20 +104,7 @@ public class ChessPiece {
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         Collection<ChessMove> validMoves = new ArrayList<>();
-        if (PieceType.KING.equals(type)) {
-            return new KingMoves().pieceMoves(myPosition, board, validMoves, this);
-        } else if (PieceType.QUEEN.equals(type)) {
-            return new QueenMoves().pieceMoves(myPosition, board, validMoves, this);
-        } else if (PieceType.BISHOP.equals(type)) {
-            return new BishopMoves().pieceMoves(myPosition, board, validMoves, this);
-        } else if (PieceType.KNIGHT.equals(type)) {
-            return new KnightMoves().pieceMoves(myPosition, board, validMoves, this);
-        } else if (PieceType.ROOK.equals(type)) {
-            return new RookMoves().pieceMoves(myPosition, board, validMoves, this);
-        } else if (PieceType.PAWN.equals(type)) {
-            return new PawnMoves().pieceMoves(myPosition, board, validMoves, this);
-        }
-        return null;
+        return BitboardMoveGenerator.pieceMoves(myPosition, board, validMoves, this);
     }
 
     public void addValidMovesForADirection(int currCol, int currRow,
@@ -104,7 +114,7 @@ public class ChessPiece {
         currCol += colIncrement;
         currRow += rowIncrement;
         while (currCol > 0 && currCol < 9 && currRow > 0 && currRow < 9) {
-            ChessPosition potentialMove = new ChessPosition(currRow, currCol);
+            ChessPosition potentialMove = ChessPosition.of(currRow, currCol);
             ChessPiece pieceOnPotentialMove = board.getPiece(potentialMove);
             if (pieceOnPotentialMove == null) {
                 validMoves.add(new ChessMove(myPosition, potentialMove, null));
@@ -0,0 +1,152 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the Zobrist keys of a game's earlier positions so ChessGame can tell in
+ * constant time how often the current position has occurred.
+ * <p>
+ * The keys sit in a ring buffer, newest last, and a linear-probing table beside it
+ * counts each key. Pushing, popping and looking up a key are O(1). When the ring is
+ * full the oldest key is dropped. That is safe because a position can only repeat
+ * since the last capture, pawn move or loss of castling rights, and the fifty-move
+ * rule ends a game long before the ring fills.
+ */
+final class DrawDetector {
+    static final int CAPACITY = 256;
+
+    private static final int RING_MASK = CAPACITY - 1;
+    private static final int TABLE_SIZE = CAPACITY * 2;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private final long[] ring = new long[CAPACITY];
+    private int start;
+    private int size;
+
+    private final long[] tableKeys = new long[TABLE_SIZE];
+    private final int[] tableCounts = new int[TABLE_SIZE];
+
+    DrawDetector() {
+    }
+
+    DrawDetector(DrawDetector other) {
+        System.arraycopy(other.ring, 0, ring, 0, CAPACITY);
+        start = other.start;
+        size = other.size;
+        System.arraycopy(other.tableKeys, 0, tableKeys, 0, TABLE_SIZE);
+        System.arraycopy(other.tableCounts, 0, tableCounts, 0, TABLE_SIZE);
+    }
+
+    /**
+     * Records the key of a position the game is leaving
+     */
+    void push(long key) {
+        if (size == CAPACITY) {
+            remove(ring[start]);
+            start = (start + 1) & RING_MASK;
+            size--;
+        }
+        ring[(start + size) & RING_MASK] = key;
+        size++;
+
+        int slot = slotOf(key);
+        while (tableCounts[slot] != 0 && tableKeys[slot] != key) {
+            slot = (slot + 1) & TABLE_MASK;
+        }
+        tableKeys[slot] = key;
+        tableCounts[slot]++;
+    }
+
+    /**
+     * Forgets the newest key, when a move is taken back
+     */
+    void pop() {
+        if (size == 0) {
+            return;
+        }
+        size--;
+        remove(ring[(start + size) & RING_MASK]);
+    }
+
+    void clear() {
+        start = 0;
+        size = 0;
+        Arrays.fill(tableCounts, 0);
+    }
+
+    /**
+     * @return how many of the remembered positions have the given key
+     */
+    int count(long key) {
+        for (int slot = slotOf(key); tableCounts[slot] != 0; slot = (slot + 1) & TABLE_MASK) {
+            if (tableKeys[slot] == key) {
+                return tableCounts[slot];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the newest limit keys, oldest first
+     */
+    long[] newest(int limit) {
+        int count = Math.min(limit, size);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ring[(start + size - count + i) & RING_MASK];
+        }
+        return keys;
+    }
+
+    /**
+     * @return True if neither side has the pieces to ever give checkmate: only kings,
+     * kings and a single knight or bishop, or kings and bishops that all stand on
+     * squares of one color
+     */
+    static boolean hasInsufficientMaterial(ChessBoard board) {
+        long heavyPieces = 0;
+        long knights = 0;
+        long bishops = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            heavyPieces |= board.getPieceBitboard(color, ChessPiece.PieceType.PAWN)
+                    | board.getPieceBitboard(color, ChessPiece.PieceType.ROOK)
+                    | board.getPieceBitboard(color, ChessPiece.PieceType.QUEEN);
+            knights |= board.getPieceBitboard(color, ChessPiece.PieceType.KNIGHT);
+            bishops |= board.getPieceBitboard(color, ChessPiece.PieceType.BISHOP);
+        }
+        if (heavyPieces != 0) {
+            return false;
+        }
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+
+    private void remove(long key) {
+        int slot = slotOf(key);
+        while (tableKeys[slot] != key || tableCounts[slot] == 0) {
+            slot = (slot + 1) & TABLE_MASK;
+        }
+        if (--tableCounts[slot] > 0) {
+            return;
+        }
+
+        // backward-shift deletion keeps every remaining key reachable from its home slot
+        int hole = slot;
+        for (int next = (hole + 1) & TABLE_MASK; tableCounts[next] != 0; next = (next + 1) & TABLE_MASK) {
+            int home = slotOf(tableKeys[next]);
+            if (((next - home) & TABLE_MASK) >= ((next - hole) & TABLE_MASK)) {
+                tableKeys[hole] = tableKeys[next];
+                tableCounts[hole] = tableCounts[next];
+                tableCounts[next] = 0;
+                hole = next;
+            }
+        }
+    }
+
+    private static int slotOf(long key) {
+        return (int) (key ^ (key >>> 32)) & TABLE_MASK;
+    }
+}
@@ -0,0 +1,20 @@
+package chess;
+
+/**
+ * Why a game is drawn even though the team to move still has legal moves
+ */
+public enum DrawReason {
+    THREEFOLD_REPETITION("threefold repetition"),
+    FIFTY_MOVE_RULE("the fifty-move rule"),
+    INSUFFICIENT_MATERIAL("insufficient material");
+
+    private final String description;
+
+    DrawReason(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,165 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation for ChessGame.fromFen and toFen
+ */
+final class Fen {
+    private static final String PIECE_LETTERS = "kqbnrp";
+
+    private Fen() {
+    }
+
+    static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2 || fields.length > 6) {
+            throw new IllegalArgumentException("Expected 2 to 6 FEN fields: " + fen);
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(parseBoard(fields[0]));
+        game.setTeamTurn(switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move: " + fields[1]);
+        });
+        int castlingRights = (fields.length > 2) ? parseCastling(fields[2]) : Castling.NONE;
+        int enPassantSquare = (fields.length > 3) ? parseSquare(fields[3]) : ChessGame.NO_EN_PASSANT;
+        int halfmoveClock = (fields.length > 4) ? parseNumber(fields[4], 0) : 0;
+        int fullmoveNumber = (fields.length > 5) ? parseNumber(fields[5], 1) : 1;
+        game.setPositionState(castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+        return game;
+    }
+
+    static String format(ChessGame game) {
+        StringBuilder fen = new StringBuilder(90);
+        appendBoard(fen, game.getBoard());
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int rights = game.getCastlingRights();
+        if (rights == Castling.NONE) {
+            fen.append('-');
+        } else {
+            appendIf(fen, rights, Castling.WHITE_KINGSIDE, 'K');
+            appendIf(fen, rights, Castling.WHITE_QUEENSIDE, 'Q');
+            appendIf(fen, rights, Castling.BLACK_KINGSIDE, 'k');
+            appendIf(fen, rights, Castling.BLACK_QUEENSIDE, 'q');
+        }
+        int enPassantSquare = game.getEnPassantSquare();
+        fen.append(' ').append(enPassantSquare == ChessGame.NO_EN_PASSANT ? "-" : Move.squareName(enPassantSquare));
+        fen.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    /**
+     * @return just the piece placement field, e.g. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"
+     */
+    static String formatBoard(ChessBoard board) {
+        StringBuilder fen = new StringBuilder(72);
+        appendBoard(fen, board);
+        return fen.toString();
+    }
+
+    private static void appendBoard(StringBuilder fen, ChessBoard board) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = board.getPiece(row * 8 + col);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(pieceLetter(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+    }
+
+    private static char pieceLetter(ChessPiece piece) {
+        char letter = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+        return (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? Character.toUpperCase(letter) : letter;
+    }
+
+    static ChessBoard parseBoard(String placement) {
+        String[] rows = placement.split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("Expected 8 rows: " + placement);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 7 - i;
+            int col = 0;
+            for (char c : rows[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                } else {
+                    int type = PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                    if (type < 0 || col > 7) {
+                        throw new IllegalArgumentException("Bad row: " + rows[i]);
+                    }
+                    ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE
+                            : ChessGame.TeamColor.BLACK;
+                    board.setPiece(row * 8 + col, ChessPiece.of(color, ChessPiece.PieceType.values()[type]));
+                    col++;
+                }
+            }
+            if (col != 8) {
+                throw new IllegalArgumentException("Row does not have 8 squares: " + rows[i]);
+            }
+        }
+        return board;
+    }
+
+    private static int parseCastling(String field) {
+        if (field.equals("-")) {
+            return Castling.NONE;
+        }
+        int rights = Castling.NONE;
+        for (char c : field.toCharArray()) {
+            rights |= switch (c) {
+                case 'K' -> Castling.WHITE_KINGSIDE;
+                case 'Q' -> Castling.WHITE_QUEENSIDE;
+                case 'k' -> Castling.BLACK_KINGSIDE;
+                case 'q' -> Castling.BLACK_QUEENSIDE;
+                default -> throw new IllegalArgumentException("Bad castling rights: " + field);
+            };
+        }
+        return rights;
+    }
+
+    private static int parseSquare(String field) {
+        if (field.equals("-")) {
+            return ChessGame.NO_EN_PASSANT;
+        }
+        if (field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h'
+                || field.charAt(1) < '1' || field.charAt(1) > '8') {
+            throw new IllegalArgumentException("Bad en passant square: " + field);
+        }
+        return (field.charAt(1) - '1') * 8 + (field.charAt(0) - 'a');
+    }
+
+    private static int parseNumber(String field, int minimum) {
+        try {
+            int value = Integer.parseInt(field);
+            if (value < minimum) {
+                throw new IllegalArgumentException("Move counter out of range: " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad move counter: " + field, e);
+        }
+    }
+
+    private static void appendIf(StringBuilder fen, int rights, int right, char letter) {
+        if ((rights & right) != 0) {
+            fen.append(letter);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package chess;
+
+/**
+ * A fixed-size binary form of a ChessGame, small enough to use as a storage value or
+ * cache key where the Gson dump of the board would be several kilobytes.
+ * <p>
+ * Layout, {@value #SIZE} bytes:
+ * <ul>
+ *     <li>0-31: the 64 squares from a1 to h8, two per byte with the lower square in the
+ *     low nibble. 0 is empty, otherwise color ordinal * 6 + piece type ordinal + 1</li>
+ *     <li>32: bit 0 set when black is to move, bits 1-4 the castling rights, bit 5 set
+ *     when the game is over</li>
+ *     <li>33: the en passant square plus one, or 0 for none</li>
+ *     <li>34: the halfmove clock, capped at 255</li>
+ *     <li>35-36: the fullmove number, big-endian</li>
+ * </ul>
+ */
+public final class GameSnapshot {
+    public static final int SIZE = 37;
+
+    private static final ChessPiece[] PIECES = new ChessPiece[13];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[code(color, type)] = ChessPiece.of(color, type);
+            }
+        }
+    }
+
+    private GameSnapshot() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[SIZE];
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                int code = code(piece.getTeamColor(), piece.getPieceType());
+                bytes[square >>> 1] |= (byte) (code << ((square & 1) * 4));
+            }
+        }
+
+        int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK) ? 1 : 0;
+        flags |= game.getCastlingRights() << 1;
+        flags |= game.getGameOver() ? 1 << 5 : 0;
+        bytes[32] = (byte) flags;
+        bytes[33] = (byte) (game.getEnPassantSquare() + 1);
+        bytes[34] = (byte) Math.min(game.getHalfmoveClock(), 255);
+        bytes[35] = (byte) (game.getFullmoveNumber() >>> 8);
+        bytes[36] = (byte) game.getFullmoveNumber();
+        return bytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if bytes is not a snapshot made by encode
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes.length != SIZE) {
+            throw new IllegalArgumentException("Snapshot must be " + SIZE + " bytes, got " + bytes.length);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int code = (bytes[square >>> 1] >>> ((square & 1) * 4)) & 0xF;
+            if (code >= PIECES.length) {
+                throw new IllegalArgumentException("Bad piece code " + code + " on square " + square);
+            }
+            board.setPiece(square, PIECES[code]);
+        }
+
+        int flags = bytes[32] & 0xFF;
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((flags & 1) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setGameOver((flags & (1 << 5)) != 0);
+        int enPassantSquare = (bytes[33] & 0xFF) - 1;
+        int fullmoveNumber = ((bytes[35] & 0xFF) << 8) | (bytes[36] & 0xFF);
+        game.setPositionState((flags >>> 1) & Castling.ALL, enPassantSquare, bytes[34] & 0xFF, fullmoveNumber);
+        return game;
+    }
+
+    private static int code(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal() + 1;
+    }
+}
@@ -0,0 +1,28 @@
+package chess;
+
+/**
+ * The state of a position for the team to move, worked out once by ChessGame.getStatus
+ *
+ * @param type           whether the team to move is in check, mated or stalemated
+ * @param legalMoveCount how many legal moves the team to move has
+ */
+public record GameStatus(Type type, int legalMoveCount) {
+
+    public enum Type {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
+    /**
+     * @return True if the team to move has no legal moves, so the game is over
+     */
+    public boolean isGameOver() {
+        return type == Type.CHECKMATE || type == Type.STALEMATE;
+    }
+
+    public boolean isCheck() {
+        return type == Type.CHECK || type == Type.CHECKMATE;
+    }
+}
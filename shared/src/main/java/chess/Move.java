@@ -0,0 +1,80 @@
+package chess;
+
+/**
+ * Packs a chess move into an int so engine code can pass moves around without
+ * allocating ChessMove and ChessPosition objects.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (0 = a1, 63 = h8).
+ * Bits 12-14 hold the promotion piece type's ordinal plus one, or 0 for no promotion.
+ * Bits 15 and up are left free for move flags.
+ */
+public final class Move {
+    /**
+     * Never a real move (a1 to a1), used to mean "no move"
+     */
+    public static final int NONE = 0;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion) {
+        int promotionBits = (promotion == null) ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12);
+    }
+
+    public static int encode(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(ChessMove move) {
+        return encode(ChessBoard.squareOf(move.getStartPosition()), ChessBoard.squareOf(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the type a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> 12) & 0x7;
+        return (promotionBits == 0) ? null : TYPES[promotionBits - 1];
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessBoard.positionOf(from(move)), ChessBoard.positionOf(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. "e2e4" or "e7e8q"
+     */
+    public static String toString(int move) {
+        String text = squareName(from(move)) + squareName(to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            text += switch (promotion) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                case KNIGHT -> "n";
+                default -> "?";
+            };
+        }
+        return text;
+    }
+
+    /**
+     * @return the square's name, e.g. "e4"
+     */
+    public static String squareName(int square) {
+        return "" + (char) ('a' + (square & 7)) + ((square >>> 3) + 1);
+    }
+}
@@ -0,0 +1,93 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A reusable buffer of moves in {@link Move}'s int encoding. The move generator appends
+ * to it; callers clear and refill the same list instead of allocating a collection of
+ * ChessMove objects per position. The buffer only grows if a position has more
+ * moves than CAPACITY, which a position set up with extra pieces can.
+ */
+public class MoveList {
+    /**
+     * More than the most legal moves any position reachable in a game has (218)
+     */
+    public static final int CAPACITY = 256;
+
+    private int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Keeps only the first size moves, for callers that filter the list in place
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IndexOutOfBoundsException("Cannot truncate " + this.size + " moves to " + size);
+        }
+        this.size = size;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts every move to a ChessMove and adds it to the given collection
+     */
+    public <T extends Collection<ChessMove>> T addTo(T chessMoves) {
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+
+    /**
+     * @return the moves as a new collection of ChessMove objects
+     */
+    public Collection<ChessMove> toChessMoves() {
+        return addTo(new ArrayList<>(size));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            text.append(i == 0 ? "" : ", ").append(Move.toString(moves[i]));
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,97 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * What ChessGame.undoMove needs to take back each move made with doMove, kept in
+ * preallocated parallel arrays so walking a game tree creates no garbage. The arrays
+ * only grow if a line goes deeper than the initial capacity.
+ * <p>
+ * The Zobrist key isn't saved: putting the pieces back with ChessBoard.setPiece
+ * restores the board's key, and the rest of the game's key is derived from the
+ * castling rights, en passant square and turn that are restored.
+ */
+final class UndoStack {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private ChessPiece[] movedPieces = new ChessPiece[INITIAL_CAPACITY];
+    private ChessPiece[] capturedPieces = new ChessPiece[INITIAL_CAPACITY];
+    private int[] castlingRights = new int[INITIAL_CAPACITY];
+    private int[] enPassantSquares = new int[INITIAL_CAPACITY];
+    private int[] halfmoveClocks = new int[INITIAL_CAPACITY];
+    private int size;
+
+    void push(int move, ChessPiece movedPiece, ChessPiece capturedPiece, int castling, int enPassant,
+              int halfmoveClock) {
+        if (size == moves.length) {
+            int capacity = size * 2;
+            moves = Arrays.copyOf(moves, capacity);
+            movedPieces = Arrays.copyOf(movedPieces, capacity);
+            capturedPieces = Arrays.copyOf(capturedPieces, capacity);
+            castlingRights = Arrays.copyOf(castlingRights, capacity);
+            enPassantSquares = Arrays.copyOf(enPassantSquares, capacity);
+            halfmoveClocks = Arrays.copyOf(halfmoveClocks, capacity);
+        }
+        moves[size] = move;
+        movedPieces[size] = movedPiece;
+        capturedPieces[size] = capturedPiece;
+        castlingRights[size] = castling;
+        enPassantSquares[size] = enPassant;
+        halfmoveClocks[size] = halfmoveClock;
+        size++;
+    }
+
+    /**
+     * Removes the top entry. Its values stay readable at index size() until the next push.
+     */
+    void pop() {
+        if (size == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        size--;
+    }
+
+    void clear() {
+        size = 0;
+        Arrays.fill(movedPieces, null);
+        Arrays.fill(capturedPieces, null);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int move(int index) {
+        return moves[index];
+    }
+
+    ChessPiece movedPiece(int index) {
+        return movedPieces[index];
+    }
+
+    ChessPiece capturedPiece(int index) {
+        return capturedPieces[index];
+    }
+
+    /**
+     * @return the game's castling rights before the move at index was made
+     */
+    int castlingRights(int index) {
+        return castlingRights[index];
+    }
+
+    /**
+     * @return the game's en passant square before the move at index was made
+     */
+    int enPassantSquare(int index) {
+        return enPassantSquares[index];
+    }
+
+    /**
+     * @return the game's halfmove clock before the move at index was made
+     */
+    int halfmoveClock(int index) {
+        return halfmoveClocks[index];
+    }
+}
@@ -0,0 +1,59 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the key of every
+ * piece on its square, the side-to-move key when black is to move, the key for the current
+ * castling rights and the key for the en passant file, so a move updates it with a few XORs.
+ * The keys come from a fixed seed so they are the same in every JVM, which lets stored
+ * keys be compared across runs.
+ */
+public final class Zobrist {
+    private static final long[] PIECE_SQUARE_KEYS = new long[12 * 64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_FILE_KEYS = new long[8];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_C0FFEEL);
+        for (int i = 0; i < PIECE_SQUARE_KEYS.length; i++) {
+            PIECE_SQUARE_KEYS[i] = random.nextLong();
+        }
+        for (int i = 1; i < CASTLING_KEYS.length; i++) {
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_FILE_KEYS.length; i++) {
+            EN_PASSANT_FILE_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param square 0 = a1, 63 = h8
+     */
+    public static long pieceKey(ChessGame.TeamColor color, ChessPiece.PieceType type, int square) {
+        return PIECE_SQUARE_KEYS[(color.ordinal() * 6 + type.ordinal()) * 64 + square];
+    }
+
+    public static long blackToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    /**
+     * @param castlingRights a 4-bit set of castling rights; no rights hashes to 0
+     */
+    public static long castlingKey(int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * @param file 0 = column a, 7 = column h
+     */
+    public static long enPassantKey(int file) {
+        return EN_PASSANT_FILE_KEYS[file];
+    }
+}
@@ -0,0 +1,101 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Command line engine benchmark: searches a fixed suite of positions to the given
+ * depth and prints, for each iteration, the time taken to reach it, the nodes searched
+ * and nodes/sec, then the totals over the suite. The suite is the perft positions plus
+ * two quiet middlegames, so results can be compared between engine changes. Each
+ * position starts from an empty transposition table of the given size, and its hit
+ * rate is printed after the search.
+ * <p>
+ * With --threads N it instead searches the suite with {@link ParallelSearch} on 1, 2,
+ * 4, ... N threads and reports the total time to reach the depth and the speedup over
+ * one thread.
+ * <p>
+ * Usage: {@code EngineBench [depth] [--hash MB] [--threads N] [--fen "<fen>"]}
+ */
+public class EngineBench {
+    private static final String[] SUITE = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+            "r2q1rk1/1p1nbppp/p2pbn2/4p3/4P3/1NN1BP2/PPPQ2PP/R3KB1R w KQ - 0 11"
+    };
+
+    public static void main(String[] args) {
+        int depth = 6;
+        int hashMb = TranspositionTable.DEFAULT_SIZE_MB;
+        int threads = 0;
+        String[] fens = SUITE;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen" -> fens = new String[]{args[++i]};
+                case "--hash" -> hashMb = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> depth = Integer.parseInt(args[i]);
+            }
+        }
+
+        if (threads > 0) {
+            runScaling(fens, depth, hashMb, threads);
+            return;
+        }
+
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (String fen : fens) {
+            System.out.println(fen);
+            TranspositionTable table = new TranspositionTable(hashMb);
+            Search search = new Search(ChessGame.fromFen(fen), table);
+            SearchResult result = search.search(SearchLimits.depth(depth), iteration ->
+                    System.out.printf("  depth %2d: %8.3f s %,12d nodes %,12.0f nodes/sec  %s  %s%n",
+                            iteration.depth(), iteration.nanos() / 1e9, iteration.nodes(),
+                            iteration.nodesPerSecond(), iteration.formatScore(), iteration.formatPv()));
+            System.out.printf("  table: %,d probes, %.1f%% hits, %,d stores%n",
+                    table.getProbes(), table.hitRate() * 100, table.getStores());
+            totalNodes += result.nodes();
+            totalNanos += result.nanos();
+        }
+        System.out.printf("total: %,d nodes in %.3f s (%,.0f nodes/sec)%n",
+                totalNodes, totalNanos / 1e9, totalNodes / (totalNanos / 1e9));
+    }
+
+    private static void runScaling(String[] fens, int depth, int hashMb, int maxThreads) {
+        // warm up the JIT on a shallower search before timing
+        try (ParallelSearch warmup = new ParallelSearch(1, new TranspositionTable(hashMb))) {
+            for (String fen : fens) {
+                warmup.search(ChessGame.fromFen(fen), SearchLimits.depth(Math.max(1, depth - 2)));
+            }
+        }
+
+        double baseline = 0;
+        int threads = 1;
+        while (true) {
+            long nodes = 0;
+            long nanos = 0;
+            try (ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(hashMb))) {
+                for (String fen : fens) {
+                    search.getTable().clear();
+                    long start = System.nanoTime();
+                    nodes += search.search(ChessGame.fromFen(fen), SearchLimits.depth(depth)).nodes();
+                    nanos += System.nanoTime() - start;
+                }
+            }
+            double seconds = nanos / 1e9;
+            if (threads == 1) {
+                baseline = seconds;
+            }
+            System.out.printf("%2d threads: depth %d in %.3f s (%,d nodes, %,.0f nodes/sec, %.2fx)%n",
+                    threads, depth, seconds, nodes, nodes / seconds, baseline / seconds);
+            if (threads >= maxThreads) {
+                return;
+            }
+            threads = Math.min(threads * 2, maxThreads);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * The numbers the {@link Evaluator} scores with, read from a properties file so they can
+ * be tuned without rebuilding. See eval-weights.properties for the format. The tables
+ * are stored already mirrored for black and with the piece value added, signed so that
+ * white pieces count positive, so an evaluation update is one array lookup per piece.
+ */
+public final class EvalWeights {
+    /**
+     * The system property naming a weights file to use instead of the bundled one
+     */
+    public static final String FILE_PROPERTY = "chess.eval.weights";
+    private static final String RESOURCE = "eval-weights.properties";
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * How many of each piece type a side starts with, indexed by PieceType ordinal
+     */
+    private static final int[] STARTING_COUNTS = {1, 1, 2, 2, 2, 8};
+
+    private final int[][] middlegame = new int[12][64];
+    private final int[][] endgame = new int[12][64];
+    private final int[] phases = new int[6];
+    private final int maxPhase;
+
+    private EvalWeights(Properties properties) {
+        for (ChessPiece.PieceType type : TYPES) {
+            String name = type.name().toLowerCase(Locale.ROOT);
+            phases[type.ordinal()] = parseInt(properties, "phase." + name);
+            fillTables(middlegame, type, parseInt(properties, "mg.value." + name), parseTable(properties, "mg.pst." + name));
+            fillTables(endgame, type, parseInt(properties, "eg.value." + name), parseTable(properties, "eg.pst." + name));
+        }
+        int startingPhase = 0;
+        for (ChessPiece.PieceType type : TYPES) {
+            startingPhase += 2 * STARTING_COUNTS[type.ordinal()] * phases[type.ordinal()];
+        }
+        maxPhase = startingPhase;
+        if (maxPhase <= 0) {
+            throw new IllegalArgumentException("The starting position must have a positive phase");
+        }
+    }
+
+    private static void fillTables(int[][] tables, ChessPiece.PieceType type, int value, int[] table) {
+        int[] white = tables[index(ChessGame.TeamColor.WHITE, type)];
+        int[] black = tables[index(ChessGame.TeamColor.BLACK, type)];
+        for (int square = 0; square < 64; square++) {
+            // the table's first row is rank 8, so white reads it with the rank flipped
+            white[square] = value + table[square ^ 56];
+            black[square] = -(value + table[square]);
+        }
+    }
+
+    /**
+     * The weights every Evaluator uses unless given others: the file named by the
+     * {@value #FILE_PROPERTY} system property if it is set, or else the bundled ones.
+     * Read once, on first use.
+     */
+    public static EvalWeights defaults() {
+        return Defaults.WEIGHTS;
+    }
+
+    private static final class Defaults {
+        private static final EvalWeights WEIGHTS = loadDefaults();
+
+        private static EvalWeights loadDefaults() {
+            String file = System.getProperty(FILE_PROPERTY);
+            return (file != null) ? load(Path.of(file)) : loadResource();
+        }
+    }
+
+    public static EvalWeights load(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read evaluation weights from " + file, e);
+        }
+    }
+
+    static EvalWeights loadResource() {
+        try (InputStream in = EvalWeights.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + RESOURCE + " on the classpath");
+            }
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + RESOURCE, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if a weight is missing or malformed
+     */
+    public static EvalWeights load(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        return new EvalWeights(properties);
+    }
+
+    private static int parseInt(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing evaluation weight " + key);
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad evaluation weight " + key + ": " + value, e);
+        }
+    }
+
+    private static int[] parseTable(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing evaluation table " + key);
+        }
+        String[] fields = value.trim().split("[\\s,]+");
+        if (fields.length != 64) {
+            throw new IllegalArgumentException("Evaluation table " + key + " has " + fields.length + " entries, not 64");
+        }
+        int[] table = new int[64];
+        for (int i = 0; i < 64; i++) {
+            try {
+                table[i] = Integer.parseInt(fields[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad entry in evaluation table " + key + ": " + fields[i], e);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return the bitboard index of a piece: color.ordinal() * 6 + type.ordinal()
+     */
+    static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the middlegame score of the piece on the square, value included, positive
+     * for white
+     */
+    int middlegame(int piece, int square) {
+        return middlegame[piece][square];
+    }
+
+    int endgame(int piece, int square) {
+        return endgame[piece][square];
+    }
+
+    int phase(ChessPiece.PieceType type) {
+        return phases[type.ordinal()];
+    }
+
+    /**
+     * @return the phase of the starting position, at and above which the position is
+     * scored as a pure middlegame
+     */
+    int maxPhase() {
+        return maxPhase;
+    }
+}
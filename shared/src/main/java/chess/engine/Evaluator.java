@@ -0,0 +1,145 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * Tapered evaluation: material plus piece-square tables, with separate middlegame and
+ * endgame weights blended by how much material is left. Scores are in centipawns from
+ * the point of view of the team to move.
+ * <p>
+ * The two sums and the phase are kept up to date move by move rather than recounted at
+ * every leaf: call {@link #makeMove} just before ChessGame.doMove and {@link #undoMove}
+ * just after ChessGame.undoMove, and {@link #evaluate(ChessGame.TeamColor)} costs a
+ * few arithmetic operations. Undo restores the saved sums instead of reversing the
+ * update, so it cannot drift.
+ */
+public final class Evaluator {
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final EvalWeights weights;
+    private int middlegame;
+    private int endgame;
+    private int phase;
+
+    private int[] saved = new int[3 * INITIAL_CAPACITY];
+    private int savedCount;
+
+    public Evaluator(EvalWeights weights) {
+        this.weights = weights;
+    }
+
+    public Evaluator() {
+        this(EvalWeights.defaults());
+    }
+
+    /**
+     * Scores a board from scratch with the default weights
+     */
+    public static int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        Evaluator evaluator = new Evaluator();
+        evaluator.reset(board);
+        return evaluator.evaluate(sideToMove);
+    }
+
+    /**
+     * Recounts the sums for a board, and forgets any saved moves
+     */
+    public void reset(ChessBoard board) {
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        savedCount = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : TYPES) {
+                int piece = EvalWeights.index(color, type);
+                long pieces = board.getPieceBitboard(color, type);
+                while (pieces != 0) {
+                    add(piece, type, Long.numberOfTrailingZeros(pieces));
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the score for sideToMove: positive if it is ahead
+     */
+    public int evaluate(ChessGame.TeamColor sideToMove) {
+        int maxPhase = weights.maxPhase();
+        int middlegameWeight = Math.min(phase, maxPhase);
+        int score = (middlegame * middlegameWeight + endgame * (maxPhase - middlegameWeight)) / maxPhase;
+        return (sideToMove == ChessGame.TeamColor.WHITE) ? score : -score;
+    }
+
+    /**
+     * Updates the sums for a move about to be played, including the rook of a castle,
+     * the pawn taken en passant and the piece a pawn promotes to
+     *
+     * @param board           the board before the move
+     * @param enPassantSquare the game's en passant square before the move
+     */
+    public void makeMove(ChessBoard board, int move, int enPassantSquare) {
+        if (savedCount == saved.length) {
+            saved = Arrays.copyOf(saved, saved.length * 2);
+        }
+        saved[savedCount++] = middlegame;
+        saved[savedCount++] = endgame;
+        saved[savedCount++] = phase;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece moved = board.getPiece(from);
+        ChessGame.TeamColor color = moved.getTeamColor();
+        ChessPiece.PieceType type = moved.getPieceType();
+        remove(EvalWeights.index(color, type), type, from);
+
+        ChessPiece captured = board.getPiece(to);
+        if (captured != null) {
+            remove(EvalWeights.index(captured.getTeamColor(), captured.getPieceType()), captured.getPieceType(), to);
+        } else if (type == ChessPiece.PieceType.PAWN && to == enPassantSquare) {
+            ChessGame.TeamColor enemy = (color == ChessGame.TeamColor.WHITE)
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            remove(EvalWeights.index(enemy, ChessPiece.PieceType.PAWN), ChessPiece.PieceType.PAWN,
+                    (from & ~7) | (to & 7));
+        } else if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            int rook = EvalWeights.index(color, ChessPiece.PieceType.ROOK);
+            remove(rook, ChessPiece.PieceType.ROOK, (to > from) ? from + 3 : from - 4);
+            add(rook, ChessPiece.PieceType.ROOK, (from + to) / 2);
+        }
+
+        ChessPiece.PieceType landed = (Move.promotion(move) != null) ? Move.promotion(move) : type;
+        add(EvalWeights.index(color, landed), landed, to);
+    }
+
+    /**
+     * Restores the sums from before the last {@link #makeMove}
+     *
+     * @throws IllegalStateException if there is no move to undo
+     */
+    public void undoMove() {
+        if (savedCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        phase = saved[--savedCount];
+        endgame = saved[--savedCount];
+        middlegame = saved[--savedCount];
+    }
+
+    private void add(int piece, ChessPiece.PieceType type, int square) {
+        middlegame += weights.middlegame(piece, square);
+        endgame += weights.endgame(piece, square);
+        phase += weights.phase(type);
+    }
+
+    private void remove(int piece, ChessPiece.PieceType type, int square) {
+        middlegame -= weights.middlegame(piece, square);
+        endgame -= weights.endgame(piece, square);
+        phase -= weights.phase(type);
+    }
+}
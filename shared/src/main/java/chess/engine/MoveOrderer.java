@@ -0,0 +1,124 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.Arrays;
+
+/**
+ * Scores moves so alpha-beta tries the likeliest cutoffs first: the best move from the
+ * last search of the position, then captures by most valuable victim and least
+ * valuable attacker (MVV-LVA), then promotions, then the two killer moves that last
+ * caused a cutoff at the same ply, then the remaining quiet moves by their history
+ * score. The moves are not sorted up front; {@link #pickNext} selects the best
+ * remaining one each time, since a cutoff usually comes after the first few.
+ */
+final class MoveOrderer {
+    private static final int HASH_MOVE = 1_000_000;
+    private static final int CAPTURE = 100_000;
+    private static final int PROMOTION = 90_000;
+    private static final int FIRST_KILLER = 80_000;
+    private static final int SECOND_KILLER = 79_000;
+    private static final int HISTORY_LIMIT = 60_000;
+
+    /**
+     * MVV-LVA rank of each piece type, indexed by PieceType ordinal
+     */
+    private static final int[] RANKS = {6, 5, 3, 3, 4, 1};
+
+    private final int[][] killers;
+    private final int[][][] history = new int[2][64][64];
+
+    MoveOrderer(int maxPly) {
+        killers = new int[maxPly][2];
+    }
+
+    /**
+     * Fills scores with a sort key for each move in moves, highest first
+     */
+    void score(ChessBoard board, int enPassantSquare, MoveList moves, int[] scores, int ply, int hashMove) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            int to = Move.to(move);
+            ChessPiece mover = board.getPiece(from);
+            ChessPiece victim = board.getPiece(to);
+            int score;
+            if (move == hashMove) {
+                score = HASH_MOVE;
+            } else if (victim != null) {
+                score = CAPTURE + RANKS[victim.getPieceType().ordinal()] * 10 - RANKS[mover.getPieceType().ordinal()];
+            } else if (to == enPassantSquare && mover.getPieceType() == ChessPiece.PieceType.PAWN) {
+                score = CAPTURE + RANKS[ChessPiece.PieceType.PAWN.ordinal()] * 10 - 1;
+            } else if (Move.promotion(move) != null) {
+                score = PROMOTION + RANKS[Move.promotion(move).ordinal()];
+            } else if (move == killers[ply][0]) {
+                score = FIRST_KILLER;
+            } else if (move == killers[ply][1]) {
+                score = SECOND_KILLER;
+            } else {
+                score = history[mover.getTeamColor().ordinal()][from][to];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Swaps the highest scoring move at or after index into index and returns it
+     */
+    static int pickNext(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves.get(best);
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return moves.get(index);
+    }
+
+    /**
+     * Remembers a quiet move that caused a beta cutoff, as a killer for its ply and in
+     * the history table, weighted by the remaining depth
+     */
+    void recordCutoff(ChessGame.TeamColor color, int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[][] table = history[color.ordinal()];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        table[from][to] += depth * depth;
+        if (table[from][to] > HISTORY_LIMIT) {
+            // halve everything so recent cutoffs count for more and scores stay below the killers
+            for (int[] row : table) {
+                for (int square = 0; square < 64; square++) {
+                    row[square] /= 2;
+                }
+            }
+        }
+    }
+
+    void clear() {
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        for (int[][] table : history) {
+            for (int[] row : table) {
+                Arrays.fill(row, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Lazy SMP: the calling thread and threads - 1 helpers all search the same position
+ * independently, each on its own copy of the game, sharing one transposition table.
+ * The helpers skip some depths so they run ahead of the main search and fill the table
+ * with results it will need next. The main search alone decides the move and the
+ * limits; when it finishes the helpers are stopped.
+ * <p>
+ * One search runs at a time; concurrent calls to search wait for each other.
+ */
+public class ParallelSearch implements AutoCloseable {
+    private final int threads;
+    private final TranspositionTable table;
+    private final ExecutorService helpers;
+
+    /**
+     * @param threads how many threads search, counting the caller's
+     * @param table   the table the threads share
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread: " + threads);
+        }
+        this.threads = threads;
+        this.table = table;
+        AtomicInteger count = new AtomicInteger();
+        this.helpers = (threads == 1) ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, result -> {
+        });
+    }
+
+    /**
+     * Searches like {@link Search#search}, with the node count summed over all threads
+     *
+     * @param onIteration called with each iteration the main search finishes
+     */
+    public synchronized SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        table.newSearch();
+        Search main = new Search(game, table);
+        List<Search> helperSearches = new ArrayList<>(threads - 1);
+        List<Future<SearchResult>> helperResults = new ArrayList<>(threads - 1);
+        SearchLimits helperLimits = SearchLimits.depth(limits.maxDepth());
+        for (int i = 1; i < threads; i++) {
+            Search helper = new Search(game, table);
+            int helperNumber = i;
+            helperSearches.add(helper);
+            helperResults.add(helpers.submit(() -> helper.run(helperLimits, result -> {
+            }, helperNumber)));
+        }
+
+        SearchResult result = main.run(limits, onIteration, 0);
+        helperSearches.forEach(Search::stop);
+
+        long nodes = result.nodes();
+        for (Future<SearchResult> helperResult : helperResults) {
+            try {
+                nodes += helperResult.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.nanos(), result.pv());
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Picks a move by iterative-deepening alpha-beta search. Each iteration searches one
+ * ply deeper than the last, starting from the previous best move, so a search stopped
+ * by its time or node limit can still answer with the best move of the last iteration
+ * that finished. Within an iteration it uses principal variation search: the first
+ * move of each node gets the full window, and the rest are only proved worse with a
+ * null window and re-searched if that fails. Leaves are resolved with a quiescence
+ * search over captures and promotions, so no score is taken in the middle of an
+ * exchange.
+ * <p>
+ * Every node's result goes into a {@link TranspositionTable}, which may be shared with
+ * other searches. Positions reached again are cut off from the table where its bound
+ * allows, and otherwise searched with the table's move first.
+ * <p>
+ * A Search plays moves on its own copy of the game with doMove and undoMove, updating
+ * its {@link Evaluator} alongside, and reuses its move lists, so it allocates nothing
+ * per node. It is not thread-safe, but {@link #stop()} may be called from another
+ * thread.
+ */
+public class Search {
+    public static final int MATE = 30_000;
+    public static final int MAX_PLY = 128;
+    private static final int INFINITY = 32_000;
+    private static final int CHECK_INTERVAL = 2048;
+
+    /**
+     * For Lazy SMP helpers: helper i skips depth d when ((d + SKIP_PHASE[i]) / SKIP_SIZE[i])
+     * is odd, so at any moment the helpers are spread over the next few depths instead
+     * of all searching the same one
+     */
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final ChessGame game;
+    private final TranspositionTable table;
+    private final MoveOrderer orderer = new MoveOrderer(MAX_PLY);
+    private final Evaluator evaluator = new Evaluator();
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] scores = new int[MAX_PLY][MoveList.CAPACITY];
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private int rootBestMove;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a search with a table of its own, of the default size
+     *
+     * @param game the position to search from; it is copied, so later moves in the
+     *             game do not affect this search
+     */
+    public Search(ChessGame game) {
+        this(game, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+    }
+
+    /**
+     * @param game  the position to search from; it is copied, so later moves in the
+     *              game do not affect this search
+     * @param table the table to read and fill, possibly shared with other searches
+     */
+    public Search(ChessGame game, TranspositionTable table) {
+        this.game = new ChessGame(game);
+        this.table = table;
+        for (int i = 0; i < MAX_PLY; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    public SearchResult search(SearchLimits limits) {
+        return search(limits, result -> {
+        });
+    }
+
+    /**
+     * Searches until a limit is reached or a forced mate is found
+     *
+     * @param onIteration called with the result of each finished iteration
+     * @return the result of the deepest finished iteration, or the first legal move if
+     * not even depth 1 finished
+     */
+    public SearchResult search(SearchLimits limits, Consumer<SearchResult> onIteration) {
+        stopped = false;
+        table.newSearch();
+        return run(limits, onIteration, 0);
+    }
+
+    /**
+     * Runs the iterative deepening loop without resetting {@link #stop()} or starting a
+     * new table generation, so a parallel search can stop its helpers before they start
+     *
+     * @param helper 0 for the main search, or the number of a helper, which skips some
+     *               depths to search ahead of the main one
+     */
+    SearchResult run(SearchLimits limits, Consumer<SearchResult> onIteration, int helper) {
+        long start = System.nanoTime();
+        nodes = 0;
+        nodeLimit = (limits.maxNodes() > 0) ? limits.maxNodes() : Long.MAX_VALUE;
+        deadline = (limits.timeMillis() > 0) ? start + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        orderer.clear();
+        evaluator.reset(game.getBoard());
+
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(Move.NONE, score, 0, 0, System.nanoTime() - start, new int[0]);
+        }
+
+        rootBestMove = rootMoves.get(0);
+        SearchResult result = new SearchResult(rootBestMove, 0, 0, 0, 0, new int[]{rootBestMove});
+        for (int depth = 1; depth <= limits.maxDepth(); depth++) {
+            if (helper > 0 && skipsDepth(helper, depth)) {
+                continue;
+            }
+            int score = alphaBeta(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            rootBestMove = pv[0][0];
+            result = new SearchResult(rootBestMove, score, depth, nodes, System.nanoTime() - start,
+                    Arrays.copyOf(pv[0], pvLength[0]));
+            onIteration.accept(result);
+            if (result.isMate()) {
+                break;
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, System.nanoTime() - start,
+                result.pv());
+    }
+
+    private static boolean skipsDepth(int helper, int depth) {
+        int i = (helper - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
+    }
+
+    /**
+     * Makes a running search return as soon as it can, with the last finished iteration
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (ply > 0 && isDraw()) {
+            return 0;
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (inCheck) {
+            // look one ply further rather than stop while the king is attacked
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta);
+        }
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game.getTeamTurn());
+        }
+
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = (ply == 0) ? rootBestMove : TranspositionTable.move(entry);
+        boolean pvNode = beta - alpha > 1;
+        if (entry != TranspositionTable.MISS && !pvNode && TranspositionTable.depth(entry) >= depth) {
+            int score = TranspositionTable.score(entry, ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        game.legalMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] moveScores = scoresFor(ply, moves);
+        orderer.score(game.getBoard(), game.getEnPassantSquare(), moves, moveScores, ply, hashMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = MoveOrderer.pickNext(moves, moveScores, i);
+            boolean quiet = isQuiet(move);
+            makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                score = -alphaBeta(depth - 1, ply + 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            undoMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            orderer.recordCutoff(game.getTeamTurn(), move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound;
+        if (bestScore >= beta) {
+            bound = TranspositionTable.LOWER;
+        } else if (bestScore > originalAlpha) {
+            bound = TranspositionTable.EXACT;
+        } else {
+            // every move failed low, so none of them is known to be best
+            bound = TranspositionTable.UPPER;
+            bestMove = Move.NONE;
+        }
+        table.store(key, bestMove, bestScore, depth, bound, ply);
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet. The team to
+     * move may also "stand pat" on the static evaluation instead of capturing, unless
+     * it is in check, in which case every evasion is searched.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game.getTeamTurn());
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = evaluator.evaluate(game.getTeamTurn());
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = moveLists[ply];
+        game.legalMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (!inCheck) {
+            keepTactical(moves);
+        }
+        int[] moveScores = scoresFor(ply, moves);
+        orderer.score(game.getBoard(), game.getEnPassantSquare(), moves, moveScores, ply, Move.NONE);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = MoveOrderer.pickNext(moves, moveScores, i);
+            makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private void makeMove(int move) {
+        evaluator.makeMove(game.getBoard(), move, game.getEnPassantSquare());
+        game.doMove(move);
+    }
+
+    private void undoMove() {
+        game.undoMove();
+        evaluator.undoMove();
+    }
+
+    /**
+     * Counts a node and checks the limits every few thousand nodes
+     *
+     * @return True if the search should stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (nodes % CHECK_INTERVAL == 0 && (nodes >= nodeLimit || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * A position reached twice is scored as a draw: if repeating it was best once, it
+     * will be again, so the line can only end in threefold repetition
+     */
+    private boolean isDraw() {
+        return game.getHalfmoveClock() >= 100 || game.getRepetitionCount() > 1;
+    }
+
+    private boolean isQuiet(int move) {
+        int to = Move.to(move);
+        if (game.getBoard().getPiece(to) != null || Move.promotion(move) != null) {
+            return false;
+        }
+        return to != game.getEnPassantSquare()
+                || game.getBoard().getPiece(Move.from(move)).getPieceType() != ChessPiece.PieceType.PAWN;
+    }
+
+    /**
+     * Removes the quiet moves from moves, keeping captures and promotions
+     */
+    private void keepTactical(MoveList moves) {
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!isQuiet(move)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    /**
+     * @return the score buffer for ply, grown if its move list has grown past it
+     */
+    private int[] scoresFor(int ply, MoveList moves) {
+        if (scores[ply].length < moves.size()) {
+            scores[ply] = new int[moves.size()];
+        }
+        return scores[ply];
+    }
+
+    private void updatePv(int ply, int move) {
+        int[] line = pv[ply];
+        line[ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+}
@@ -0,0 +1,34 @@
+package chess.engine;
+
+/**
+ * When a search should stop. It ends at whichever limit comes first; a node or time
+ * limit of 0 means none.
+ *
+ * @param maxDepth   the deepest iteration to search, in plies
+ * @param maxNodes   how many nodes to visit at most
+ * @param timeMillis how long to search for, in milliseconds
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long timeMillis) {
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + maxDepth);
+        }
+        if (maxNodes < 0 || timeMillis < 0) {
+            throw new IllegalArgumentException("Limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, 0);
+    }
+
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(MAX_DEPTH, 0, millis);
+    }
+}
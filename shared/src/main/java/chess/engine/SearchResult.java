@@ -0,0 +1,59 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.Move;
+
+/**
+ * The outcome of the deepest iteration a search finished
+ *
+ * @param bestMove  the move to play in {@link Move}'s encoding, or Move.NONE if the
+ *                  team to move has no legal moves
+ * @param score     the score in centipawns for the team to move; mates are within
+ *                  {@link Search#MAX_PLY} of ±{@link Search#MATE}
+ * @param depth     the depth of the iteration the move comes from
+ * @param nodes     how many nodes were searched in total, quiescence included
+ * @param nanos     how long the search took
+ * @param pv        the principal variation, starting with bestMove
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long nanos, int[] pv) {
+
+    /**
+     * @return the best move as a ChessMove, or null if there is none
+     */
+    public ChessMove bestChessMove() {
+        return (bestMove == Move.NONE) ? null : Move.toChessMove(bestMove);
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    public double nodesPerSecond() {
+        return (nanos == 0) ? 0 : nodes / (nanos / 1e9);
+    }
+
+    /**
+     * @return the score as pawns, e.g. "+0.35", or as "mate in N" / "mated in N" moves
+     */
+    public String formatScore() {
+        if (isMate()) {
+            int moves = (Search.MATE - Math.abs(score) + 1) / 2;
+            return (score > 0 ? "mate in " : "mated in ") + moves;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
+
+    /**
+     * @return the principal variation in coordinate notation, e.g. "e2e4 e7e5 g1f3"
+     */
+    public String formatPv() {
+        StringBuilder line = new StringBuilder();
+        for (int move : pv) {
+            if (!line.isEmpty()) {
+                line.append(' ');
+            }
+            line.append(Move.toString(move));
+        }
+        return line.toString();
+    }
+}
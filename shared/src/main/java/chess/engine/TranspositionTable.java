@@ -0,0 +1,228 @@
+package chess.engine;
+
+import chess.Move;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the result of searching a position, keyed by its Zobrist key, so the
+ * search can skip positions it reaches again by another move order and try their best
+ * move first. One table may be shared by any number of searches on different threads.
+ * <p>
+ * Entries live in a single long[] as pairs of (key XOR data, data), two entries to a
+ * bucket. No locks are taken: a reader recomputes key XOR data and only trusts the
+ * entry if it gives back the key it asked for, so an entry torn by two threads writing
+ * at once reads as a miss rather than as wrong data. Moves read from the table are
+ * only ever compared against generated legal moves, so a rare false match costs
+ * nothing but ordering.
+ * <p>
+ * The data long packs the move in bits 0-15, the score in bits 16-31, the depth in bits
+ * 32-39, the bound in bits 40-41 and the search generation in bits 42-49. A bound is
+ * never 0, so no stored data is 0 and 0 can mean a miss.
+ */
+public final class TranspositionTable {
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    /**
+     * What {@link #probe} returns when the position is not in the table
+     */
+    public static final long MISS = 0;
+
+    /**
+     * The score is exact
+     */
+    public static final int EXACT = 1;
+    /**
+     * The score is a lower bound: the search failed high
+     */
+    public static final int LOWER = 2;
+    /**
+     * The score is an upper bound: every move failed low
+     */
+    public static final int UPPER = 3;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    private static final int MATE_BOUND = Search.MATE - Search.MAX_PLY;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param sizeMb the most memory to use; rounded down to a power of two of buckets
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1 || sizeMb > 8192) {
+            throw new IllegalArgumentException("Table size must be between 1 and 8192 MB: " + sizeMb);
+        }
+        long buckets = Long.highestOneBit(sizeMb * 1024L * 1024L / (BUCKET_LONGS * Long.BYTES));
+        table = new long[Math.toIntExact(buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return how many entries the table holds
+     */
+    public int capacity() {
+        return table.length / ENTRY_LONGS;
+    }
+
+    /**
+     * Starts a new search generation. Entries from earlier generations are replaced
+     * first, since the game has moved past most of them.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    /**
+     * @return the entry's data for the position, or {@link #MISS}
+     */
+    public long probe(long key) {
+        probes.increment();
+        int bucket = bucketIndex(key);
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if (data != MISS && (table[i] ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the result of searching a position. Within its bucket an entry for the
+     * same position is overwritten unless it came from a deeper search this generation;
+     * otherwise the entry that is oldest and shallowest is replaced.
+     *
+     * @param score the score as the search saw it at this ply; mate scores are stored
+     *              relative to the position so they stay right when it is reached at
+     *              another ply
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        int bucket = bucketIndex(key);
+        int currentGeneration = generation;
+        int target = -1;
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if (data != MISS && (table[i] ^ data) == key) {
+                if (bound != EXACT && generation(data) == currentGeneration && depth(data) > depth + 2) {
+                    return;
+                }
+                if (move == Move.NONE) {
+                    move = move(data);
+                }
+                target = i;
+                break;
+            }
+        }
+        if (target < 0) {
+            int first = replacementPriority(table[bucket + 1], currentGeneration);
+            int second = replacementPriority(table[bucket + ENTRY_LONGS + 1], currentGeneration);
+            target = (first <= second) ? bucket : bucket + ENTRY_LONGS;
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((toStored(score, ply) & 0xFFFFL) << 16)
+                | ((long) Math.min(depth, 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) currentGeneration << 42);
+        table[target + 1] = data;
+        table[target] = key ^ data;
+        stores.increment();
+    }
+
+    /**
+     * Lower means replace first: empty slots, then older generations, then shallower
+     * searches
+     */
+    private static int replacementPriority(long data, int currentGeneration) {
+        if (data == MISS) {
+            return Integer.MIN_VALUE;
+        }
+        int age = (currentGeneration - generation(data)) & 0xFF;
+        return depth(data) - 8 * age;
+    }
+
+    private int bucketIndex(long key) {
+        // the low bits pick the bucket; XOR verification checks all 64
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * @return the stored score adjusted back to the ply it is read at
+     */
+    public static int score(long data, int ply) {
+        int score = (short) (data >>> 16);
+        if (score > MATE_BOUND) {
+            return score - ply;
+        }
+        if (score < -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+
+    private static int toStored(int score, int ply) {
+        if (score > MATE_BOUND) {
+            return score + ply;
+        }
+        if (score < -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return the fraction of probes that found their position, from 0 to 1
+     */
+    public double hitRate() {
+        long probeCount = probes.sum();
+        return (probeCount == 0) ? 0 : (double) hits.sum() / probeCount;
+    }
+}
@@ -0,0 +1,86 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.MoveList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs perft on a ForkJoinPool. The moves in the first splitDepth plies each become a
+ * task working on its own copy of the game; below that each task counts sequentially
+ * with {@link Perft#count}.
+ */
+public class ParallelPerft implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * @param parallelism how many worker threads to use
+     * @param splitDepth  how many plies to split into tasks (1 splits only the root moves)
+     */
+    public ParallelPerft(int parallelism, int splitDepth) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.splitDepth = Math.max(1, splitDepth);
+    }
+
+    public ParallelPerft(int parallelism) {
+        this(parallelism, 1);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Counts the positions reachable in exactly depth moves, like {@link Perft#count}.
+     * The game itself is not modified.
+     */
+    public long count(ChessGame game, int depth) {
+        return pool.invoke(new PerftTask(new ChessGame(game), depth, splitDepth));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final ChessGame game;
+        private final int depth;
+        private final int splitsLeft;
+
+        PerftTask(ChessGame game, int depth, int splitsLeft) {
+            this.game = game;
+            this.depth = depth;
+            this.splitsLeft = splitsLeft;
+        }
+
+        @Override
+        protected Long compute() {
+            if (splitsLeft == 0 || depth <= 1) {
+                return Perft.count(game, depth);
+            }
+
+            MoveList moves = new MoveList();
+            game.legalMoves(moves);
+            List<PerftTask> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessGame child = new ChessGame(game);
+                child.doMove(moves.get(i));
+                tasks.add(new PerftTask(child, depth - 1, splitsLeft - 1));
+            }
+            invokeAll(tasks);
+
+            long nodes = 0;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+}
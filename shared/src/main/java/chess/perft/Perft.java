@@ -0,0 +1,83 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Performance test (perft) for the move generator: counts the leaf nodes of the legal
+ * move tree to a fixed depth. The counts can be compared against published reference
+ * numbers to find generator bugs, and the time taken gives a nodes/sec figure.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reachable in exactly depth moves from the given game.
+     * The game itself is not modified.
+     *
+     * @param game  the position to start from, with the team to move set
+     * @param depth how many moves deep to search
+     * @return the number of leaf positions
+     */
+    public static long count(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return countMoves(new ChessGame(game), depth, newMoveLists(depth));
+    }
+
+    /**
+     * Splits the perft count by root move, which narrows a wrong total down to the
+     * move whose subtree disagrees with a reference engine.
+     *
+     * @return the leaf count below each legal root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        ChessGame copy = new ChessGame(game);
+        MoveList rootMoves = new MoveList();
+        MoveList[] moveLists = newMoveLists(Math.max(depth - 1, 0));
+        copy.legalMoves(rootMoves);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            copy.doMove(move);
+            counts.put(Move.toChessMove(move), depth <= 1 ? 1 : countMoves(copy, depth - 1, moveLists));
+            copy.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * @return one reusable move list per remaining depth, so the whole count allocates
+     * nothing once started
+     */
+    static MoveList[] newMoveLists(int depth) {
+        MoveList[] moveLists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            moveLists[i] = new MoveList();
+        }
+        return moveLists;
+    }
+
+    static long countMoves(ChessGame game, int depth, MoveList[] moveLists) {
+        MoveList moves = moveLists[depth - 1];
+        game.legalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += countMoves(game, depth - 1, moveLists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,86 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+
+import java.util.Map;
+
+/**
+ * Command line perft: prints the node count, time and nodes/sec for each depth up to
+ * the requested one, and the per-move split at the last depth with --divide.
+ * With --threads N it instead runs the last depth on 1, 2, 4, ... N threads and
+ * reports the nodes/sec and speedup for each. The starting position is used unless
+ * --fen gives another.
+ * <p>
+ * Usage: {@code PerftRunner <depth> [--divide] [--threads N] [--split plies] [--fen "<fen>"]}
+ */
+public class PerftRunner {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: PerftRunner <depth> [--divide] [--threads N] [--split plies] [--fen \"<fen>\"]");
+            return;
+        }
+        int maxDepth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        int threads = 0;
+        int splitDepth = 1;
+        ChessGame game = new ChessGame();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> divide = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--split" -> splitDepth = Integer.parseInt(args[++i]);
+                case "--fen" -> game = ChessGame.fromFen(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (threads > 0) {
+            runScaling(game, maxDepth, threads, splitDepth);
+            return;
+        }
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = Perft.count(game, depth);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("depth %d: %,d nodes in %.3f s (%,.0f nodes/sec)%n",
+                    depth, nodes, nanos / 1e9, nodes / (nanos / 1e9));
+        }
+
+        if (divide) {
+            long total = 0;
+            for (Map.Entry<ChessMove, Long> entry : Perft.divide(game, maxDepth).entrySet()) {
+                System.out.printf("%s: %d%n", Move.toString(Move.of(entry.getKey())), entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.printf("total: %d%n", total);
+        }
+    }
+
+    private static void runScaling(ChessGame game, int depth, int maxThreads, int splitDepth) {
+        double baseline = 0;
+        int threads = 1;
+        while (true) {
+            try (ParallelPerft perft = new ParallelPerft(threads, splitDepth)) {
+                // warm up the pool and the JIT on a shallower run before timing
+                perft.count(game, Math.max(1, depth - 1));
+                long start = System.nanoTime();
+                long nodes = perft.count(game, depth);
+                long nanos = System.nanoTime() - start;
+                double nodesPerSecond = nodes / (nanos / 1e9);
+                if (threads == 1) {
+                    baseline = nodesPerSecond;
+                }
+                System.out.printf("%2d threads: %,d nodes in %.3f s (%,.0f nodes/sec, %.2fx)%n",
+                        threads, nodes, nanos / 1e9, nodesPerSecond, nodesPerSecond / baseline);
+            }
+            if (threads >= maxThreads) {
+                return;
+            }
+            threads = Math.min(threads * 2, maxThreads);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package chess.piecemoves;
+
+import chess.ChessGame;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed attack bitboards for every piece type, indexed by square (0 = a1, 63 = h8).
+ * <p>
+ * Knight, king and pawn attacks are plain lookups. Rook and bishop attacks use magic
+ * bitboards: the blockers on a square's relevant rays are multiplied by a magic number
+ * and shifted down to an index into that square's attack table. The magics are found
+ * once at class load from a fixed seed, so the tables are the same on every run.
+ */
+public final class AttackTables {
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_OFFSETS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING_OFFSETS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsetAttacks(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = offsetAttacks(square, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = offsetAttacks(square, new int[][]{{1, 1}, {1, -1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = offsetAttacks(square, new int[][]{{-1, 1}, {-1, -1}});
+            initMagic(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS);
+            initMagic(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS);
+            initLines(square, ROOK_DIRECTIONS);
+            initLines(square, BISHOP_DIRECTIONS);
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color standing on square attacks diagonally
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    public static long rookAttacks(int square, long occupancy) {
+        return ROOK_ATTACKS[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishopAttacks(int square, long occupancy) {
+        return BISHOP_ATTACKS[square][(int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same rank, file or diagonal,
+     * or 0 if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal through both squares (edge to edge),
+     * or 0 if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    private static long offsetAttacks(int square, int[][] offsets) {
+        int row = square >>> 3;
+        int col = square & 7;
+        long attacks = 0;
+        for (int[] offset : offsets) {
+            int toRow = row + offset[0];
+            int toCol = col + offset[1];
+            if (toRow >= 0 && toRow < 8 && toCol >= 0 && toCol < 8) {
+                attacks |= 1L << (toRow * 8 + toCol);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each ray from square until it leaves the board or hits a blocker (the blocker
+     * square is included). Only used to fill the tables.
+     */
+    private static long slidingAttacks(int square, long occupancy, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Squares whose occupancy can change the attack set: every ray square except the
+     * last one before the edge, since a blocker there makes no difference.
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row + direction[0] >= 0 && row + direction[0] < 8
+                    && col + direction[1] >= 0 && col + direction[1] < 8) {
+                mask |= 1L << (row * 8 + col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static void initLines(int square, int[][] directions) {
+        for (int[] direction : directions) {
+            long fullLine = (1L << square) | slidingAttacks(square, 0, new int[][]{direction})
+                    | slidingAttacks(square, 0, new int[][]{{-direction[0], -direction[1]}});
+            long between = 0;
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                int target = row * 8 + col;
+                BETWEEN[square][target] = between;
+                LINE[square][target] = fullLine;
+                between |= 1L << target;
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+    }
+
+    private static void initMagic(int square, int[][] directions, long[] masks, long[] magics,
+                                  int[] shifts, long[][] tables) {
+        long mask = relevantMask(square, directions);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        boolean[] used = new boolean[size];
+        int shift = 64 - bits;
+        while (true) {
+            long magic = nextRandom() & nextRandom() & nextRandom();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            Arrays.fill(used, false);
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shift);
+                if (!used[index]) {
+                    used[index] = true;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                masks[square] = mask;
+                magics[square] = magic;
+                shifts[square] = shift;
+                tables[square] = table;
+                return;
+            }
+        }
+    }
+
+    private static long nextRandom() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return seed;
+    }
+}
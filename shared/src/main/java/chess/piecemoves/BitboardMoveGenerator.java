@@ -0,0 +1,117 @@
+package chess.piecemoves;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.Collection;
+
+/**
+ * Generates the same pseudo-legal moves as RookMoves, BishopMoves, QueenMoves, KnightMoves,
+ * KingMoves and PawnMoves, but from the board's bitboards and the AttackTables lookups
+ * instead of walking rays square by square.
+ */
+public class BitboardMoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.KNIGHT
+    };
+
+    public static Collection<ChessMove> pieceMoves(ChessPosition myPosition, ChessBoard board,
+                                                   Collection<ChessMove> validMoves, ChessPiece piece) {
+        int square = ChessBoard.squareOf(myPosition);
+        long targets = pseudoLegalTargets(board, square, piece);
+        return addMoves(myPosition, targets, piece.getPieceType() == ChessPiece.PieceType.PAWN, validMoves);
+    }
+
+    /**
+     * @return every square a piece of the given type and color on square attacks,
+     * including squares held by either side
+     */
+    public static long attacks(ChessPiece.PieceType type, ChessGame.TeamColor color, int square, long occupancy) {
+        return switch (type) {
+            case KING -> AttackTables.kingAttacks(square);
+            case QUEEN -> AttackTables.queenAttacks(square, occupancy);
+            case BISHOP -> AttackTables.bishopAttacks(square, occupancy);
+            case KNIGHT -> AttackTables.knightAttacks(square);
+            case ROOK -> AttackTables.rookAttacks(square, occupancy);
+            case PAWN -> AttackTables.pawnAttacks(color, square);
+        };
+    }
+
+    /**
+     * @return the target squares of every pseudo-legal move of piece from square
+     */
+    public static long pseudoLegalTargets(ChessBoard board, int square, ChessPiece piece) {
+        ChessGame.TeamColor color = piece.getTeamColor();
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            return pawnTargets(board, square, color);
+        }
+        return attacks(piece.getPieceType(), color, square, board.getOccupancy()) & ~board.getOccupancy(color);
+    }
+
+    /**
+     * Adds a move from myPosition to every square in targets. Pawn moves onto the last
+     * row are expanded into the four promotion moves.
+     */
+    public static Collection<ChessMove> addMoves(ChessPosition myPosition, long targets, boolean pawn,
+                                                Collection<ChessMove> validMoves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int target = Long.numberOfTrailingZeros(targets);
+            ChessPosition targetPosition = ChessBoard.positionOf(target);
+            int targetRow = target >>> 3;
+            if (pawn && (targetRow == 0 || targetRow == 7)) {
+                for (ChessPiece.PieceType promotionType : PROMOTION_TYPES) {
+                    validMoves.add(new ChessMove(myPosition, targetPosition, promotionType));
+                }
+            } else {
+                validMoves.add(new ChessMove(myPosition, targetPosition, null));
+            }
+        }
+        return validMoves;
+    }
+
+    /**
+     * Same as {@link #addMoves(ChessPosition, long, boolean, Collection)}, but appends the
+     * moves to a MoveList in {@link Move}'s int encoding
+     */
+    public static void addMoves(int square, long targets, boolean pawn, MoveList moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int target = Long.numberOfTrailingZeros(targets);
+            int targetRow = target >>> 3;
+            if (pawn && (targetRow == 0 || targetRow == 7)) {
+                for (ChessPiece.PieceType promotionType : PROMOTION_TYPES) {
+                    moves.add(Move.encode(square, target, promotionType));
+                }
+            } else {
+                moves.add(Move.encode(square, target));
+            }
+        }
+    }
+
+    private static long pawnTargets(ChessBoard board, int square, ChessGame.TeamColor color) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int startRow = white ? 1 : 6;
+
+        int oneStep = square + forward;
+        if (oneStep < 0 || oneStep > 63) {
+            return 0;
+        }
+        long empty = ~board.getOccupancy();
+        long targets = (1L << oneStep) & empty;
+        if (targets != 0 && (square >>> 3) == startRow) {
+            targets |= (1L << (oneStep + forward)) & empty;
+        }
+
+        ChessGame.TeamColor enemy = white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return targets | (AttackTables.pawnAttacks(color, square) & board.getOccupancy(enemy));
+    }
+}
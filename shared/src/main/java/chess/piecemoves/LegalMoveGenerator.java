@@ -0,0 +1,259 @@
+package chess.piecemoves;
+
+import chess.Castling;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+
+import java.util.Collection;
+
+/**
+ * Generates only legal moves for one team, without trying each move on the board.
+ * <p>
+ * The checkers, the squares that answer a check (capture the checker or block its ray)
+ * and the pinned pieces are worked out once when the generator is created. A piece's
+ * legal targets are then its pseudo-legal targets masked by the check evasion squares
+ * and, if it is pinned, by the line through its king. King moves are kept only if the
+ * target is not attacked with the king lifted off the board.
+ * <p>
+ * A board without a king for the team has no checks or pins, so every pseudo-legal move
+ * is legal.
+ * <p>
+ * Castles are added to the king's targets when the right is still held, the squares
+ * between king and rook are empty, and the king does not start in, pass through or land
+ * on an attacked square. An en passant capture is checked by taking both pawns off the
+ * board and testing the king directly, which also covers the case of both pawns
+ * shielding the king from a rook on their row.
+ */
+public class LegalMoveGenerator {
+    private static final long LAST_ROWS = 0xFF000000000000FFL;
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor teamColor;
+    private final ChessGame.TeamColor enemyColor;
+    private final int kingSquare;
+    private final long checkers;
+    private final long evasionMask;
+    private final long pinned;
+    private final int castlingRights;
+    private final int enPassantSquare;
+
+    /**
+     * A generator for a position with no castling rights and no en passant capture
+     */
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor teamColor) {
+        this(board, teamColor, Castling.NONE, ChessGame.NO_EN_PASSANT);
+    }
+
+    /**
+     * @param castlingRights  mask of the {@link Castling} rights still held
+     * @param enPassantSquare the square the team can capture onto en passant, or
+     *                        ChessGame.NO_EN_PASSANT
+     */
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor teamColor, int castlingRights,
+                              int enPassantSquare) {
+        this.board = board;
+        this.teamColor = teamColor;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.enemyColor = (teamColor == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+        long kings = board.getPieceBitboard(teamColor, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            kingSquare = -1;
+            checkers = 0;
+            evasionMask = -1L;
+            pinned = 0;
+            return;
+        }
+
+        kingSquare = Long.numberOfTrailingZeros(kings);
+        checkers = board.attackersTo(kingSquare, enemyColor);
+        if (checkers == 0) {
+            evasionMask = -1L;
+        } else if (Long.bitCount(checkers) == 1) {
+            evasionMask = checkers | AttackTables.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        } else {
+            evasionMask = 0;
+        }
+        pinned = findPinned();
+    }
+
+    /**
+     * @return True if the team's king is attacked
+     */
+    public boolean inCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * @return bitboard of the team's pieces that may only move along the line to their king
+     */
+    public long getPinned() {
+        return pinned;
+    }
+
+    /**
+     * @return bitboard of the enemy pieces giving check
+     */
+    public long getCheckers() {
+        return checkers;
+    }
+
+    /**
+     * @return the target squares of every legal move of the team's piece on square
+     */
+    public long legalTargets(int square) {
+        ChessPiece piece = board.getPiece(square);
+        if (piece == null || piece.getTeamColor() != teamColor) {
+            return 0;
+        }
+        if (square == kingSquare) {
+            return kingTargets();
+        }
+
+        long targets = BitboardMoveGenerator.pseudoLegalTargets(board, square, piece) & evasionMask;
+        if ((pinned & (1L << square)) != 0) {
+            targets &= AttackTables.line(kingSquare, square);
+        }
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && canCaptureEnPassant(square)) {
+            targets |= 1L << enPassantSquare;
+        }
+        return targets;
+    }
+
+    /**
+     * Adds every legal move of the piece on myPosition to validMoves
+     */
+    public Collection<ChessMove> addLegalMoves(ChessPosition myPosition, Collection<ChessMove> validMoves) {
+        int square = ChessBoard.squareOf(myPosition);
+        long targets = legalTargets(square);
+        boolean pawn = board.getPiece(square).getPieceType() == ChessPiece.PieceType.PAWN;
+        return BitboardMoveGenerator.addMoves(myPosition, targets, pawn, validMoves);
+    }
+
+    /**
+     * Adds every legal move of the team's piece on square to moves
+     */
+    public void addLegalMoves(int square, MoveList moves) {
+        ChessPiece piece = board.getPiece(square);
+        if (piece == null) {
+            return;
+        }
+        BitboardMoveGenerator.addMoves(square, legalTargets(square), piece.getPieceType() == ChessPiece.PieceType.PAWN,
+                moves);
+    }
+
+    /**
+     * Adds every legal move of the team to moves, piece by piece from a1 to h8
+     */
+    public void generate(MoveList moves) {
+        for (long pieces = board.getOccupancy(teamColor); pieces != 0; pieces &= pieces - 1) {
+            addLegalMoves(Long.numberOfTrailingZeros(pieces), moves);
+        }
+    }
+
+    /**
+     * Counts the team's legal moves without building them. A pawn move onto the last row
+     * counts as four, one per promotion piece.
+     */
+    public int countLegalMoves() {
+        int count = 0;
+        for (long pieces = board.getOccupancy(teamColor); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            long targets = legalTargets(square);
+            count += Long.bitCount(targets);
+            if (board.getPiece(square).getPieceType() == ChessPiece.PieceType.PAWN) {
+                count += 3 * Long.bitCount(targets & LAST_ROWS);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return True if any of the team's pieces has a legal move
+     */
+    public boolean hasLegalMove() {
+        if (kingSquare >= 0 && kingTargets() != 0) {
+            return true;
+        }
+        for (long pieces = board.getOccupancy(teamColor); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            if (square != kingSquare && legalTargets(square) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long kingTargets() {
+        long candidates = AttackTables.kingAttacks(kingSquare) & ~board.getOccupancy(teamColor);
+        long occupancyWithoutKing = board.getOccupancy() & ~(1L << kingSquare);
+        long targets = 0;
+        for (; candidates != 0; candidates &= candidates - 1) {
+            int target = Long.numberOfTrailingZeros(candidates);
+            if (board.attackersTo(target, enemyColor, occupancyWithoutKing) == 0) {
+                targets |= 1L << target;
+            }
+        }
+        if (checkers == 0 && castlingRights != Castling.NONE && kingSquare == Castling.kingSquare(teamColor)) {
+            targets |= castlingTarget(Castling.kingside(teamColor)) | castlingTarget(Castling.queenside(teamColor));
+        }
+        return targets;
+    }
+
+    private long castlingTarget(int right) {
+        if ((castlingRights & right) == 0) {
+            return 0;
+        }
+        int rookSquare = Castling.rookSquare(right);
+        long rooks = board.getPieceBitboard(teamColor, ChessPiece.PieceType.ROOK);
+        if ((rooks & (1L << rookSquare)) == 0
+                || (AttackTables.between(kingSquare, rookSquare) & board.getOccupancy()) != 0) {
+            return 0;
+        }
+        int target = Castling.kingTarget(right);
+        int passed = (kingSquare + target) / 2;
+        if (board.isSquareAttacked(passed, enemyColor) || board.isSquareAttacked(target, enemyColor)) {
+            return 0;
+        }
+        return 1L << target;
+    }
+
+    private boolean canCaptureEnPassant(int square) {
+        if (enPassantSquare == ChessGame.NO_EN_PASSANT
+                || (AttackTables.pawnAttacks(teamColor, square) & (1L << enPassantSquare)) == 0) {
+            return false;
+        }
+        if (kingSquare < 0) {
+            return true;
+        }
+        int capturedSquare = (square & ~7) | (enPassantSquare & 7);
+        long occupancy = (board.getOccupancy() ^ (1L << square) ^ (1L << capturedSquare)) | (1L << enPassantSquare);
+        return (board.attackersTo(kingSquare, enemyColor, occupancy) & ~(1L << capturedSquare)) == 0;
+    }
+
+    private long findPinned() {
+        long enemyOccupancy = board.getOccupancy(enemyColor);
+        long queens = board.getPieceBitboard(enemyColor, ChessPiece.PieceType.QUEEN);
+        long rookSliders = board.getPieceBitboard(enemyColor, ChessPiece.PieceType.ROOK) | queens;
+        long bishopSliders = board.getPieceBitboard(enemyColor, ChessPiece.PieceType.BISHOP) | queens;
+
+        // sliders that would see the king if the team's own pieces were removed
+        long snipers = (AttackTables.rookAttacks(kingSquare, enemyOccupancy) & rookSliders)
+                | (AttackTables.bishopAttacks(kingSquare, enemyOccupancy) & bishopSliders);
+
+        long pinnedPieces = 0;
+        long occupancy = board.getOccupancy();
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = AttackTables.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupancy;
+            if (Long.bitCount(blockers) == 1) {
+                pinnedPieces |= blockers;
+            }
+        }
+        return pinnedPieces;
+    }
+}
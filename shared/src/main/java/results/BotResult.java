@@ -0,0 +1,3 @@
+package results;
+
+public record BotResult(String username) {}
@@ -0,0 +1,92 @@
+package serialization;
+
+import chess.ChessBoard;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streams a ChessBoard as {"v":2,"fen":"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"},
+ * the FEN piece placement, instead of the 64-slot "squares" array Gson's reflection
+ * writes. Boards without a "v" field are read as that older "squares" form, so rows
+ * stored before the change still load.
+ */
+public class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+    static final int VERSION = 2;
+
+    private final ChessPieceAdapter pieceAdapter = new ChessPieceAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        if (board == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("v").value(VERSION);
+        out.name("fen").value(board.toFen());
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessBoard board = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "v" -> checkVersion(in.nextInt());
+                case "fen" -> board = parseFen(in.nextString());
+                case "squares" -> board = readSquares(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return (board == null) ? new ChessBoard() : board;
+    }
+
+    static void checkVersion(int version) {
+        if (version > VERSION) {
+            throw new JsonParseException("Unsupported chess format version " + version);
+        }
+    }
+
+    private static ChessBoard parseFen(String placement) {
+        try {
+            return ChessBoard.fromFen(placement);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the version 1 form, squares[row - 1][column - 1] of piece objects or nulls
+     */
+    private ChessBoard readSquares(JsonReader in) throws IOException {
+        ChessBoard board = new ChessBoard();
+        in.beginArray();
+        for (int row = 0; in.hasNext(); row++) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            in.beginArray();
+            for (int col = 0; in.hasNext(); col++) {
+                var piece = pieceAdapter.read(in);
+                if (row < 8 && col < 8) {
+                    board.setPiece(row * 8 + col, piece);
+                }
+            }
+            in.endArray();
+        }
+        in.endArray();
+        return board;
+    }
+}
@@ -0,0 +1,118 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streams a ChessGame as {"v":2,"fen":"...","gameOver":false,"history":[...]}: one FEN
+ * string holds the board, turn, castling rights, en passant square and move counters,
+ * and "history" the Zobrist keys of the earlier positions that still count towards a
+ * threefold repetition (left out when there are none). Games without a
+ * "v" field are read as the older reflective form with "teamTurn" and a "board" of
+ * "squares", so games stored before the change still load.
+ */
+public class ChessGameAdapter extends TypeAdapter<ChessGame> {
+    private final ChessBoardAdapter boardAdapter = new ChessBoardAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        if (game == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("v").value(ChessBoardAdapter.VERSION);
+        out.name("fen").value(game.toFen());
+        out.name("gameOver").value(game.getGameOver());
+        long[] history = game.getRepetitionHistory();
+        if (history.length > 0) {
+            out.name("history").beginArray();
+            for (long key : history) {
+                out.value(key);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String fen = null;
+        boolean gameOver = false;
+        ChessGame.TeamColor teamTurn = null;
+        ChessBoard board = null;
+        Integer castlingRights = null;
+        int enPassantSquare = ChessGame.NO_EN_PASSANT;
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        long[] history = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "v" -> ChessBoardAdapter.checkVersion(in.nextInt());
+                case "fen" -> fen = in.nextString();
+                case "gameOver" -> gameOver = in.nextBoolean();
+                case "teamTurn" -> teamTurn = ChessGame.TeamColor.valueOf(in.nextString());
+                case "board" -> board = boardAdapter.read(in);
+                case "castlingRights" -> castlingRights = in.nextInt();
+                case "enPassantSquare" -> enPassantSquare = in.nextInt();
+                case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                case "history" -> history = readHistory(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        ChessGame game;
+        if (fen != null) {
+            try {
+                game = ChessGame.fromFen(fen);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        } else {
+            game = new ChessGame();
+            if (board != null) {
+                game.setBoard(board);
+            }
+            if (teamTurn != null) {
+                game.setTeamTurn(teamTurn);
+            }
+            int rights = (castlingRights != null) ? castlingRights : game.getCastlingRights();
+            game.setPositionState(rights, enPassantSquare, halfmoveClock, fullmoveNumber);
+        }
+        game.setGameOver(gameOver);
+        if (history != null) {
+            game.setRepetitionHistory(history);
+        }
+        return game;
+    }
+
+    private static long[] readHistory(JsonReader in) throws IOException {
+        long[] keys = new long[16];
+        int count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = in.nextLong();
+        }
+        in.endArray();
+        return Arrays.copyOf(keys, count);
+    }
+}
@@ -0,0 +1,37 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The Gson instance for anything that carries chess objects. Gson is thread safe, so
+ * the client and server share this one instead of building a new Gson per message.
+ * Games and boards are streamed in a compact FEN-based form by hand-written adapters
+ * rather than by reflection.
+ */
+public final class ChessGson {
+    private static final Gson GSON = builder().create();
+
+    private ChessGson() {
+    }
+
+    public static Gson get() {
+        return GSON;
+    }
+
+    /**
+     * @return a builder with the chess type adapters registered, for callers that need
+     * extra settings on top
+     */
+    public static GsonBuilder builder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(ChessPosition.class, new ChessPositionAdapter().nullSafe())
+                .registerTypeAdapter(ChessPiece.class, new ChessPieceAdapter().nullSafe())
+                .registerTypeAdapter(ChessBoard.class, new ChessBoardAdapter().nullSafe())
+                .registerTypeAdapter(ChessGame.class, new ChessGameAdapter().nullSafe());
+    }
+}
@@ -0,0 +1,68 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes ChessPiece in the same {"pieceColor":"WHITE","type":"PAWN"} form
+ * Gson's reflection produces, but resolves each piece to the shared instance from
+ * ChessPiece.of, so a deserialized board holds at most twelve piece objects.
+ */
+public class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
+
+    @Override
+    public void write(JsonWriter out, ChessPiece piece) throws IOException {
+        if (piece == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (piece.getTeamColor() != null) {
+            out.name("pieceColor").value(piece.getTeamColor().name());
+        }
+        if (piece.getPieceType() != null) {
+            out.name("type").value(piece.getPieceType().name());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessPiece read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "pieceColor" -> color = readEnum(in, ChessGame.TeamColor.class);
+                case "type" -> type = readEnum(in, ChessPiece.PieceType.class);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return ChessPiece.of(color, type);
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> enumClass) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = in.nextString();
+        for (E constant : enumClass.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+}
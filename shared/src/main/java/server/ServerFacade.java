@@ -6,9 +6,10 @@ import model.Game;
 import model.User;
 
 import java.net.HttpURLConnection;
-import com.google.gson.Gson;
+import serialization.ChessGson;
 import exception.ResponseException;
 import requests.CreateRequest;
+import results.BotResult;
 import results.CreateResult;
 import results.LoginResult;
 
@@ -73,6 +74,18 @@ public class ServerFacade {
         return null;
     }
 
+    /**
+     * Seats a computer player in a game
+     *
+     * @return the bot's username
+     */
+    public String addBot(String playerColor, int gameId) throws ResponseException {
+        var path = "/game/bot";
+        record AddBotRequest(String playerColor, Integer gameID) {}
+        var request = new AddBotRequest(playerColor, gameId);
+        return this.makeRequest("POST", path, request, BotResult.class, authToken).username();
+    }
+
     public Game joinGame(String playerColor, int gameId) throws ResponseException {
         var path = "/game";
         record JoinGameRequest(String playerColor, Integer gameID) {}
@@ -105,7 +118,7 @@ public class ServerFacade {
     private static void writeBody(Object request, HttpURLConnection http) throws IOException {
         if (request != null) {
             http.addRequestProperty("Content-Type", "application/json");
-            String reqData = new Gson().toJson(request);
+            String reqData = ChessGson.get().toJson(request);
             try (OutputStream reqBody = http.getOutputStream()) {
                 reqBody.write(reqData.getBytes());
             }
@@ -131,7 +144,7 @@ public class ServerFacade {
             try (InputStream respBody = http.getInputStream()) {
                 InputStreamReader reader = new InputStreamReader(respBody);
                 if (responseClass != null) {
-                    response = new Gson().fromJson(reader, responseClass);
+                    response = ChessGson.get().fromJson(reader, responseClass);
                 }
             }
         }
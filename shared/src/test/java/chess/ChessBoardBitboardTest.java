@@ -0,0 +1,59 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessBoardBitboardTest {
+
+    @Test
+    void startingBoardOccupancy() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        assertEquals(0x000000000000FFFFL, board.getOccupancy(ChessGame.TeamColor.WHITE));
+        assertEquals(0xFFFF000000000000L, board.getOccupancy(ChessGame.TeamColor.BLACK));
+        assertEquals(0x000000000000FF00L, board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        assertEquals(1L << 60, board.getPieceBitboard(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+    }
+
+    @Test
+    void replacingAndRemovingPiecesUpdatesBitboards() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessPosition e2 = new ChessPosition(2, 5);
+
+        board.addPiece(e2, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        assertEquals(0L, board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN) & (1L << 12));
+        assertEquals((1L << 12) | (1L << 59),
+                board.getPieceBitboard(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+
+        board.addPiece(e2, null);
+        assertEquals(0L, board.getOccupancy() & (1L << 12));
+        assertNull(board.getPiece(e2));
+    }
+
+    @Test
+    void kingAndPieceQueries() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        ChessPiece whiteKing = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        assertEquals(new ChessPosition(1, 5), board.getKingOnBoardPosition(whiteKing));
+        assertEquals(16, board.getAllChessCurrPieces(ChessGame.TeamColor.BLACK).size());
+        assertEquals(new ChessPosition(8, 8), ChessBoard.positionOf(63));
+        assertEquals(10, ChessBoard.squareOf(new ChessPosition(2, 3)));
+    }
+
+    @Test
+    void deserializedBoardRebuildsBitboards() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        ChessBoard copy = new Gson().fromJson(new Gson().toJson(board), ChessBoard.class);
+        assertEquals(board.getOccupancy(), copy.getOccupancy());
+        assertEquals(board, copy);
+        assertEquals(board.hashCode(), copy.hashCode());
+    }
+}
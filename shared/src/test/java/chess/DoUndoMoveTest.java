@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DoUndoMoveTest {
+
+    @Test
+    void undoRestoresCapturesAndTurn() {
+        ChessGame game = new ChessGame();
+        ChessGame original = new ChessGame(game);
+        long originalKey = game.getZobristKey();
+
+        game.doMove(Move.of(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+        game.doMove(Move.of(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null)));
+        game.doMove(Move.of(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null)));
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(3, game.getUndoDepth());
+
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        assertEquals(original, game);
+        assertEquals(originalKey, game.getZobristKey());
+        assertEquals(0, game.getUndoDepth());
+    }
+
+    @Test
+    void undoPromotionRestoresPawn() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | |n| | |k| | | |
+                |P| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        ChessBoard before = new ChessBoard(game.getBoard());
+
+        game.doMove(Move.encode(48, 57, ChessPiece.PieceType.QUEEN));
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN), game.getBoard().getPiece(57));
+
+        game.undoMove();
+        assertEquals(before, game.getBoard());
+        assertEquals(before.getZobristKey(), game.getBoard().getZobristKey());
+    }
+
+    @Test
+    void undoCastleAndEnPassantRestoresState() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                | | |p| | | | | |
+                | | | | | | | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | |R|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        ChessGame original = new ChessGame(game);
+
+        game.doMove(Move.encode(50, 34));
+        assertEquals(42, game.getEnPassantSquare());
+        ChessGame afterPush = new ChessGame(game);
+        game.doMove(Move.encode(33, 42));
+        assertNull(game.getBoard().getPiece(34));
+        game.doMove(Move.encode(60, 62));
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK), game.getBoard().getPiece(61));
+        assertEquals(Castling.WHITE_KINGSIDE | Castling.WHITE_QUEENSIDE, game.getCastlingRights());
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals(afterPush, game);
+        game.undoMove();
+        assertEquals(original, game);
+        assertEquals(original.getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    void undoWithEmptyStackFails() {
+        assertThrows(IllegalStateException.class, () -> new ChessGame().undoMove());
+    }
+
+    @Test
+    void moveEncodingRoundTrips() {
+        ChessMove move = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        int encoded = Move.of(move);
+
+        assertEquals(move, Move.toChessMove(encoded));
+        assertEquals("a7b8n", Move.toString(encoded));
+        assertNull(Move.promotion(Move.encode(12, 28)));
+    }
+}
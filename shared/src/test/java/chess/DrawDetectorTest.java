@@ -0,0 +1,88 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import serialization.ChessGson;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DrawDetectorTest {
+
+    @Test
+    void knightShufflesRepeatThreeTimes() {
+        ChessGame game = new ChessGame();
+        for (int round = 1; round <= 2; round++) {
+            assertEquals(round, game.getRepetitionCount());
+            assertNull(game.getDrawReason());
+            shuffleKnights(game);
+        }
+        assertEquals(3, game.getRepetitionCount());
+        assertEquals(DrawReason.THREEFOLD_REPETITION, game.getDrawReason());
+
+        game.undoMove();
+        assertEquals(2, game.getRepetitionCount());
+        assertNull(game.getDrawReason());
+    }
+
+    @Test
+    void historySurvivesSerialization() {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        ChessGame restored = ChessGson.get().fromJson(ChessGson.get().toJson(game), ChessGame.class);
+        assertEquals(2, restored.getRepetitionCount());
+        shuffleKnights(restored);
+        assertEquals(DrawReason.THREEFOLD_REPETITION, restored.getDrawReason());
+    }
+
+    @Test
+    void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 99 80");
+        assertNull(game.getDrawReason());
+        game.makeMove(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(2, 1), null));
+        assertEquals(DrawReason.FIFTY_MOVE_RULE, game.getDrawReason());
+    }
+
+    @Test
+    void insufficientMaterial() {
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - -").getDrawReason());
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, ChessGame.fromFen("4k3/8/8/8/8/8/8/2N1K3 w - -").getDrawReason());
+        assertEquals(DrawReason.INSUFFICIENT_MATERIAL, ChessGame.fromFen("4kb2/8/8/8/8/8/8/2B1K3 w - -").getDrawReason());
+        assertNull(ChessGame.fromFen("2b1k3/8/8/8/8/8/8/2B1K3 w - -").getDrawReason());
+        assertNull(ChessGame.fromFen("4k3/8/8/8/8/8/8/1NN1K3 w - -").getDrawReason());
+        assertNull(ChessGame.fromFen("4k3/8/8/8/8/8/P7/4K3 w - -").getDrawReason());
+    }
+
+    @Test
+    void tableCountsMatchTheRingPastCapacity() {
+        Random random = new Random(8);
+        DrawDetector detector = new DrawDetector();
+        long[] keys = {11, 22, 33, 44, 11 + 512, 22 + 1024};
+        ArrayDeque<Long> ring = new ArrayDeque<>();
+        for (int step = 0; step < 2000; step++) {
+            if (!ring.isEmpty() && random.nextInt(3) == 0) {
+                detector.pop();
+                ring.removeLast();
+            } else {
+                long key = keys[random.nextInt(keys.length)];
+                detector.push(key);
+                ring.addLast(key);
+                if (ring.size() > DrawDetector.CAPACITY) {
+                    ring.removeFirst();
+                }
+            }
+            for (long key : keys) {
+                long expected = ring.stream().filter(k -> k == key).count();
+                assertEquals(expected, detector.count(key), "key " + key + " at step " + step);
+            }
+        }
+    }
+
+    private static void shuffleKnights(ChessGame game) {
+        game.doMove(Move.encode(6, 21));
+        game.doMove(Move.encode(62, 45));
+        game.doMove(Move.encode(21, 6));
+        game.doMove(Move.encode(45, 62));
+    }
+}
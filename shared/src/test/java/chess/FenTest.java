@@ -0,0 +1,80 @@
+package chess;
+
+import chess.perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void startingPositionRoundTrips() {
+        assertEquals(START, new ChessGame().toFen());
+        assertEquals(new ChessGame(), ChessGame.fromFen(START));
+    }
+
+    @Test
+    void stateFieldsRoundTrip() {
+        String fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3";
+        ChessGame game = ChessGame.fromFen(fen);
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        assertEquals(Castling.WHITE_KINGSIDE | Castling.BLACK_QUEENSIDE, game.getCastlingRights());
+        assertEquals(45, game.getEnPassantSquare());
+        assertEquals(3, game.getFullmoveNumber());
+        assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    void uncapturableEnPassantSquareIsDropped() {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        assertEquals(ChessGame.NO_EN_PASSANT, game.getEnPassantSquare());
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+    }
+
+    @Test
+    void rightsComeFromTheFenNotTheBoard() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w - - 0 1");
+        assertEquals(Castling.NONE, game.getCastlingRights());
+        assertEquals(24, Perft.count(game, 1));
+        assertEquals(26, Perft.count(ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1"), 1));
+    }
+
+    @Test
+    void countersFollowMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/8/5N2/PPPPPPPP/RNBQKB1R w KQkq - 2 2", game.toFen());
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertEquals(0, game.getHalfmoveClock());
+    }
+
+    @Test
+    void fenMatchesThroughRandomGames() {
+        Random random = new Random(12);
+        MoveList moves = new MoveList();
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        for (int ply = 0; ply < 60; ply++) {
+            ChessGame parsed = ChessGame.fromFen(game.toFen());
+            assertEquals(game, parsed);
+            assertEquals(game.getZobristKey(), parsed.getZobristKey());
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+    @Test
+    void badFenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8 w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("9/8/8/8/8/8/8/8 w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(START.replace(" w ", " x ")));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(START.replace("KQkq", "KX")));
+    }
+}
@@ -0,0 +1,42 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSnapshotTest {
+
+    @Test
+    void snapshotRoundTripsThroughRandomGames() {
+        Random random = new Random(3);
+        MoveList moves = new MoveList();
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < 120; ply++) {
+            byte[] snapshot = GameSnapshot.encode(game);
+            assertEquals(GameSnapshot.SIZE, snapshot.length);
+            ChessGame decoded = GameSnapshot.decode(snapshot);
+            assertEquals(game, decoded);
+            assertEquals(game.toFen(), decoded.toFen());
+
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+    @Test
+    void gameOverIsKept() {
+        ChessGame game = new ChessGame();
+        game.setGameOver(true);
+        assertTrue(GameSnapshot.decode(GameSnapshot.encode(game)).getGameOver());
+    }
+
+    @Test
+    void wrongLengthIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode(new byte[10]));
+    }
+}
@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusTest {
+
+    @Test
+    void statusOfKnownPositions() {
+        assertEquals(new GameStatus(GameStatus.Type.NORMAL, 20), new ChessGame().getStatus());
+        assertEquals(GameStatus.Type.CHECKMATE,
+                ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3").getStatus().type());
+        assertEquals(GameStatus.Type.STALEMATE, ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1").getStatus().type());
+        GameStatus check = ChessGame.fromFen("4k3/8/8/8/8/8/4r3/4K3 w - - 0 1").getStatus();
+        assertEquals(GameStatus.Type.CHECK, check.type());
+        assertEquals(3, check.legalMoveCount());
+    }
+
+    @Test
+    void promotionsCountAsFourMoves() {
+        assertEquals(4 + 3, ChessGame.fromFen("8/P6k/8/8/8/8/8/K7 w - - 0 1").getStatus().legalMoveCount());
+    }
+
+    @Test
+    void statusIsKeptUntilThePositionChanges() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        GameStatus start = game.getStatus();
+        assertSame(start, game.getStatus());
+
+        game.makeMove(new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        assertEquals(GameStatus.Type.NORMAL, game.getStatus().type());
+        game.makeMove(new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+        assertEquals(GameStatus.Type.CHECKMATE, game.getStatus().type());
+
+        game.setBoard(new ChessGame().getBoard());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(start, game.getStatus());
+    }
+
+    @Test
+    void countMatchesValidMovesThroughRandomGames() {
+        Random random = new Random(21);
+        MoveList moves = new MoveList();
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        for (int ply = 0; ply < 100; ply++) {
+            GameStatus status = game.getStatus();
+            assertEquals(game.validMoves().size(), status.legalMoveCount());
+            assertEquals(game.isInCheck(game.getTeamTurn()), status.isCheck());
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                assertTrue(status.isGameOver());
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+}
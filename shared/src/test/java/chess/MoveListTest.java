@@ -0,0 +1,69 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveListTest {
+
+    @Test
+    void legalMovesMatchValidMovesThroughAGame() {
+        Random random = new Random(9);
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < 80; ply++) {
+            game.legalMoves(moves);
+            assertEquals(new HashSet<>(game.validMoves()), new HashSet<>(moves.toChessMoves()));
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+    @Test
+    void legalMovesClearsTheList() {
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        game.legalMoves(moves);
+        assertEquals(20, moves.size());
+        assertTrue(moves.contains(Move.encode(12, 28)));
+    }
+
+    @Test
+    void promotionsAreExpanded() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                |P| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """));
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        for (ChessPiece.PieceType type : new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN,
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT}) {
+            assertTrue(moves.contains(Move.encode(48, 56, type)), type.toString());
+        }
+        assertFalse(moves.contains(Move.encode(48, 56)));
+    }
+
+    @Test
+    void growsPastItsCapacity() {
+        MoveList moves = new MoveList();
+        for (int i = 0; i < MoveList.CAPACITY * 2 + 1; i++) {
+            moves.add(i);
+        }
+        assertEquals(MoveList.CAPACITY * 2 + 1, moves.size());
+        assertEquals(MoveList.CAPACITY * 2, moves.get(MoveList.CAPACITY * 2));
+    }
+}
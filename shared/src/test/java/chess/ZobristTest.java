@@ -0,0 +1,64 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTest {
+
+    @Test
+    void transpositionRestoresKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long startKey = game.getZobristKey();
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertNotEquals(startKey, game.getZobristKey());
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+
+        assertEquals(startKey, game.getZobristKey());
+    }
+
+    @Test
+    void castlingRightsAndEnPassantChangeKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(6, 1), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        assertEquals(43, game.getEnPassantSquare());
+        long withEnPassant = game.getZobristKey();
+
+        ChessGame sameBoard = new ChessGame(game);
+        sameBoard.setBoard(new ChessBoard(game.getBoard()));
+        sameBoard.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(withEnPassant ^ Zobrist.enPassantKey(3), sameBoard.getZobristKey());
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        assertEquals(Castling.BLACK_KINGSIDE | Castling.BLACK_QUEENSIDE, game.getCastlingRights());
+    }
+
+    @Test
+    void incrementalKeyMatchesRebuiltKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+
+        ChessGame rebuilt = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        assertEquals(game.getZobristKey(), rebuilt.getZobristKey());
+        assertEquals(game.hashCode(), rebuilt.hashCode());
+    }
+
+    @Test
+    void sideToMoveChangesKey() {
+        ChessGame game = new ChessGame();
+        long whiteKey = game.getZobristKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertEquals(whiteKey ^ Zobrist.blackToMoveKey(), game.getZobristKey());
+        assertEquals(game.getBoard().getZobristKey() ^ Zobrist.castlingKey(Castling.ALL), whiteKey);
+    }
+}
@@ -0,0 +1,150 @@
+package chess.benchmark;
+
+import chess.*;
+import chess.piecemoves.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old check test (generate every opposing piece's moves and look for one
+ * that lands on the king) against the attack-table lookup from the king square, on a
+ * few middlegame positions.
+ * <p>
+ * Run from the IDE, or after {@code mvn -pl shared test-compile} with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckDetectionBenchmark {
+
+    @Param({"italian", "queens-gambit", "open-center"})
+    public String position;
+
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(switch (position) {
+            case "italian" -> """
+                    |r| |b|q| |r|k| |
+                    |p|p|p| | |p|p|p|
+                    | | |n|p| |n| | |
+                    | | |b| |p| | | |
+                    | | |B| |P| | | |
+                    | | |P|P| |N| | |
+                    |P|P| | | |P|P|P|
+                    |R|N|B|Q| |R|K| |
+                    """;
+            case "queens-gambit" -> """
+                    |r| |b|q| |r|k| |
+                    |p|p| |n|b|p|p|p|
+                    | | |p| |p|n| | |
+                    | | | |p| | |B| |
+                    | | |P|P| | | | |
+                    | | |N| |P|N| | |
+                    |P|P|Q| | |P|P|P|
+                    |R| | | |K|B| |R|
+                    """;
+            default -> """
+                    |r| | |q|r| |k| |
+                    |p|p| | |b|p|p|p|
+                    | | |n|p| |n| | |
+                    | | |p| |p| |B| |
+                    | | |B| |P| |b| |
+                    | | |N|P| |N| | |
+                    |P|P|P| |Q|P|P|P|
+                    |R| | | | |R|K| |
+                    """;
+        }));
+    }
+
+    @Benchmark
+    public boolean isInCheckByMoveGeneration() {
+        return inCheckByMoveGeneration(game.getBoard(), ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckByAttackLookup() {
+        return game.isInCheck(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public int allValidMovesByMoveGeneration() {
+        ChessBoard board = game.getBoard();
+        int count = 0;
+        for (long pieces = board.getOccupancy(ChessGame.TeamColor.WHITE); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            ChessPosition start = ChessBoard.positionOf(square);
+            ChessPiece piece = board.getPiece(square);
+            for (ChessMove move : legacyMoves(board, start, piece)) {
+                ChessPiece captured = board.getPiece(move.getEndPosition());
+                board.addPiece(move.getEndPosition(), piece);
+                board.addPiece(start, null);
+                if (!inCheckByMoveGeneration(board, ChessGame.TeamColor.WHITE)) {
+                    count++;
+                }
+                board.addPiece(start, piece);
+                board.addPiece(move.getEndPosition(), captured);
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int allValidMovesByAttackLookup() {
+        ChessBoard board = game.getBoard();
+        int count = 0;
+        for (long pieces = board.getOccupancy(ChessGame.TeamColor.WHITE); pieces != 0; pieces &= pieces - 1) {
+            count += game.validMoves(ChessBoard.positionOf(Long.numberOfTrailingZeros(pieces))).size();
+        }
+        return count;
+    }
+
+    private static boolean inCheckByMoveGeneration(ChessBoard board, ChessGame.TeamColor teamColor) {
+        ChessPosition king = null;
+        for (int square = 0; square < 64 && king == null; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null && piece.getTeamColor() == teamColor && piece.getPieceType() == ChessPiece.PieceType.KING) {
+                king = ChessBoard.positionOf(square);
+            }
+        }
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null && piece.getTeamColor() != teamColor) {
+                for (ChessMove move : legacyMoves(board, ChessBoard.positionOf(square), piece)) {
+                    if (move.getEndPosition().equals(king)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Collection<ChessMove> legacyMoves(ChessBoard board, ChessPosition position, ChessPiece piece) {
+        Collection<ChessMove> moves = new ArrayList<>();
+        return switch (piece.getPieceType()) {
+            case KING -> new KingMoves().pieceMoves(position, board, moves, piece);
+            case QUEEN -> new QueenMoves().pieceMoves(position, board, moves, piece);
+            case BISHOP -> new BishopMoves().pieceMoves(position, board, moves, piece);
+            case KNIGHT -> new KnightMoves().pieceMoves(position, board, moves, piece);
+            case ROOK -> new RookMoves().pieceMoves(position, board, moves, piece);
+            case PAWN -> new PawnMoves().pieceMoves(position, board, moves, piece);
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CheckDetectionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
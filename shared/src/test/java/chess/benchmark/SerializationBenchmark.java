@@ -0,0 +1,60 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import serialization.ChessGson;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading a middlegame ChessGame with Gson's reflection (the old
+ * "squares" form) against the streaming FEN adapters registered in ChessGson. main
+ * prints the size of each form before running.
+ * <p>
+ * Run from the IDE, or after {@code mvn -pl shared test-compile} with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final String POSITION = "r1bq1rk1/pp2bppp/2n1pn2/2pp4/3P4/2PBPN2/PP1N1PPP/R1BQ1RK1 w - - 4 8";
+
+    @Param({"reflective", "streaming"})
+    public String format;
+
+    private Gson gson;
+    private ChessGame game;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        gson = format.equals("reflective") ? new Gson() : ChessGson.get();
+        game = ChessGame.fromFen(POSITION);
+        json = gson.toJson(game);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame deserialize() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChessGame game = ChessGame.fromFen(POSITION);
+        System.out.printf("reflective: %d bytes%n", new Gson().toJson(game).getBytes(StandardCharsets.UTF_8).length);
+        System.out.printf("streaming:  %d bytes%n", ChessGson.get().toJson(game).getBytes(StandardCharsets.UTF_8).length);
+        new Runner(new OptionsBuilder().include(SerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
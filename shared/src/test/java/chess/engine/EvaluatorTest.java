@@ -0,0 +1,106 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.MoveList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluatorTest {
+
+    @Test
+    void mirroredPositionsScoreTheSameForTheirSideToMove() {
+        assertEquals(0, Evaluator.evaluate(new ChessGame().getBoard(), ChessGame.TeamColor.WHITE));
+        int white = Evaluator.evaluate(ChessGame.fromFen("4k3/8/8/8/3P4/8/8/4K3 w - - 0 1").getBoard(),
+                ChessGame.TeamColor.WHITE);
+        int black = Evaluator.evaluate(ChessGame.fromFen("4k3/8/8/3p4/8/8/8/4K3 b - - 0 1").getBoard(),
+                ChessGame.TeamColor.BLACK);
+        assertEquals(white, black);
+        assertTrue(white > 0);
+    }
+
+    @Test
+    void endgamesUseTheEndgameWeights() {
+        // only kings and pawns: the phase is 0, so the king's endgame table applies and
+        // a centralized king is better than one in the corner
+        int central = Evaluator.evaluate(ChessGame.fromFen("7k/p7/8/8/3K4/8/P7/8 w - - 0 1").getBoard(),
+                ChessGame.TeamColor.WHITE);
+        int corner = Evaluator.evaluate(ChessGame.fromFen("7k/p7/8/8/8/8/P7/K7 w - - 0 1").getBoard(),
+                ChessGame.TeamColor.WHITE);
+        assertTrue(central > corner);
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRecount() {
+        String[] fens = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+        };
+        Random random = new Random(19);
+        MoveList moves = new MoveList();
+        for (String fen : fens) {
+            for (int game = 0; game < 20; game++) {
+                ChessGame chessGame = ChessGame.fromFen(fen);
+                Evaluator incremental = new Evaluator();
+                incremental.reset(chessGame.getBoard());
+                int[] scores = new int[60];
+                int plies = 0;
+                for (; plies < scores.length; plies++) {
+                    scores[plies] = incremental.evaluate(ChessGame.TeamColor.WHITE);
+                    assertEquals(Evaluator.evaluate(chessGame.getBoard(), ChessGame.TeamColor.WHITE), scores[plies],
+                            chessGame.toFen());
+                    chessGame.legalMoves(moves);
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    int move = moves.get(random.nextInt(moves.size()));
+                    incremental.makeMove(chessGame.getBoard(), move, chessGame.getEnPassantSquare());
+                    chessGame.doMove(move);
+                }
+                for (int ply = plies - 1; ply >= 0; ply--) {
+                    chessGame.undoMove();
+                    incremental.undoMove();
+                    assertEquals(scores[ply], incremental.evaluate(ChessGame.TeamColor.WHITE));
+                }
+            }
+        }
+    }
+
+    @Test
+    void weightsLoadFromAFile(@TempDir Path directory) throws IOException {
+        String bundled;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("eval-weights.properties")) {
+            bundled = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+        }
+        Path file = directory.resolve("weights.properties");
+        Files.writeString(file, bundled.replace("mg.value.queen=1025", "mg.value.queen=2025")
+                .replace("eg.value.queen=936", "eg.value.queen=1936"), StandardCharsets.ISO_8859_1);
+
+        ChessGame extraQueen = ChessGame.fromFen("4k3/8/8/8/8/8/8/3QK3 w - - 0 1");
+        Evaluator standard = new Evaluator(EvalWeights.loadResource());
+        Evaluator tuned = new Evaluator(EvalWeights.load(file));
+        standard.reset(extraQueen.getBoard());
+        tuned.reset(extraQueen.getBoard());
+        assertEquals(1000, tuned.evaluate(ChessGame.TeamColor.WHITE) - standard.evaluate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void badWeightsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EvalWeights.load(stream("phase.king=0\n")));
+        assertThrows(IllegalArgumentException.class, () -> EvalWeights.load(stream("phase.king=zero\n")));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,57 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSearchTest {
+
+    @Test
+    void findsTheSameMateAsOneThread() {
+        ChessGame game = ChessGame.fromFen("2r3k1/5ppp/8/8/8/8/4RPPP/4R1K1 w - - 0 1");
+        try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(4))) {
+            SearchResult result = search.search(game, SearchLimits.depth(5));
+            assertEquals("e2e8", Move.toString(result.bestMove()));
+            assertEquals(Search.MATE - 3, result.score());
+        }
+    }
+
+    @Test
+    void shallowSearchesStopTheirHelpers() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveList legal = new MoveList();
+        game.legalMoves(legal);
+        try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(4))) {
+            // helpers are limited only by depth, so each search returning shows they were stopped
+            for (int i = 0; i < 20; i++) {
+                SearchResult result = search.search(game, SearchLimits.depth(1));
+                assertEquals(1, result.depth());
+                assertTrue(legal.contains(result.bestMove()));
+            }
+        }
+    }
+
+    @Test
+    void nodesAreCountedOverAllThreads() {
+        ChessGame game = ChessGame.fromFen("r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8");
+        long[] mainNodes = new long[1];
+        try (ParallelSearch search = new ParallelSearch(3)) {
+            SearchResult result = search.search(game, SearchLimits.depth(5), iteration -> mainNodes[0] = iteration.nodes());
+            assertEquals(5, result.depth());
+            assertTrue(result.nodes() >= mainNodes[0]);
+            assertTrue(search.getTable().getStores() > 0);
+        }
+    }
+
+    @Test
+    void oneThreadNeedsNoHelpers() {
+        try (ParallelSearch search = new ParallelSearch(1)) {
+            assertEquals(1, search.getThreads());
+            assertNotEquals(Move.NONE, search.search(new ChessGame(), SearchLimits.depth(3)).bestMove());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0));
+    }
+}
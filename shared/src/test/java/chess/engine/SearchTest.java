@@ -0,0 +1,102 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTest {
+
+    private static SearchResult search(String fen, int depth) {
+        return new Search(ChessGame.fromFen(fen)).search(SearchLimits.depth(depth));
+    }
+
+    @Test
+    void findsMateInOne() {
+        SearchResult result = search("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4", 3);
+        assertEquals("h5f7", Move.toString(result.bestMove()));
+        assertEquals(Search.MATE - 1, result.score());
+        assertEquals("mate in 1", result.formatScore());
+    }
+
+    @Test
+    void findsMateInTwo() {
+        SearchResult result = search("2r3k1/5ppp/8/8/8/8/4RPPP/4R1K1 w - - 0 1", 5);
+        assertEquals("e2e8", Move.toString(result.bestMove()));
+        assertEquals(Search.MATE - 3, result.score());
+        assertEquals("mate in 2", result.formatScore());
+        assertEquals(3, result.pv().length);
+    }
+
+    @Test
+    void takesAHangingQueen() {
+        SearchResult result = search("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1", 4);
+        assertEquals("d2d5", Move.toString(result.bestMove()));
+        assertTrue(result.score() > 400);
+    }
+
+    @Test
+    void doesNotTakeADefendedPawnWithTheQueen() {
+        // Qxd5 would lose the queen to exd5; quiescence has to see the recapture
+        SearchResult result = search("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1", 1);
+        assertNotEquals("d1d5", Move.toString(result.bestMove()));
+    }
+
+    @Test
+    void noMoveWhenTheGameIsOver() {
+        SearchResult mated = search("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", 3);
+        assertEquals(Move.NONE, mated.bestMove());
+        assertNull(mated.bestChessMove());
+        assertEquals(-Search.MATE, mated.score());
+
+        SearchResult stalemate = search("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", 3);
+        assertEquals(Move.NONE, stalemate.bestMove());
+        assertEquals(0, stalemate.score());
+    }
+
+    @Test
+    void stopsAtTheNodeLimitWithALegalMove() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchResult result = new Search(game).search(SearchLimits.nodes(20_000));
+        assertTrue(result.nodes() < 20_000 + 2048);
+        assertTrue(result.depth() < SearchLimits.MAX_DEPTH);
+        MoveList legal = new MoveList();
+        game.legalMoves(legal);
+        assertTrue(legal.contains(result.bestMove()));
+    }
+
+    @Test
+    void stopsAtTheTimeLimit() {
+        long start = System.nanoTime();
+        SearchResult result = new Search(new ChessGame()).search(SearchLimits.time(200));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < 1000, "took " + millis + " ms");
+        assertNotEquals(Move.NONE, result.bestMove());
+    }
+
+    @Test
+    void searchLeavesTheGameUnchanged() {
+        ChessGame game = ChessGame.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        String fen = game.toFen();
+        new Search(game).search(SearchLimits.depth(4));
+        assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    void iterationsDeepenOneAtATime() {
+        int[] expected = {1};
+        new Search(new ChessGame()).search(SearchLimits.depth(4), iteration -> {
+            assertEquals(expected[0]++, iteration.depth());
+            assertEquals(iteration.bestMove(), iteration.pv()[0]);
+        });
+        assertEquals(5, expected[0]);
+    }
+
+    @Test
+    void limitsAreValidated() {
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.depth(0));
+        assertThrows(IllegalArgumentException.class, () -> new SearchLimits(4, -1, 0));
+    }
+}
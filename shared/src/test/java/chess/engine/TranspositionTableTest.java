@@ -0,0 +1,131 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    void sizeIsAPowerOfTwoWithinTheBudget() {
+        TranspositionTable table = new TranspositionTable(3);
+        int capacity = table.capacity();
+        assertEquals(Integer.bitCount(capacity), 1);
+        assertTrue(capacity * 16L <= 3 * 1024 * 1024);
+        assertEquals(2 * 1024 * 1024 / 16, capacity);
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    void storedEntriesReadBack() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(12, 28);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -250, 7, TranspositionTable.LOWER, 3);
+
+        long data = table.probe(0x1234_5678_9ABC_DEF0L);
+        assertNotEquals(TranspositionTable.MISS, data);
+        assertEquals(move, TranspositionTable.move(data));
+        assertEquals(-250, TranspositionTable.score(data, 3));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+
+        assertEquals(TranspositionTable.MISS, table.probe(0x1234_5678_9ABC_DEF1L));
+        assertEquals(2, table.getProbes());
+        assertEquals(1, table.getHits());
+        assertEquals(0.5, table.hitRate());
+    }
+
+    @Test
+    void mateScoresAreRelativeToThePosition() {
+        TranspositionTable table = new TranspositionTable(1);
+        // mate found 5 plies from the root, with the position itself at ply 2
+        table.store(42, Move.NONE, Search.MATE - 5, 3, TranspositionTable.EXACT, 2);
+        long data = table.probe(42);
+        assertEquals(Search.MATE - 5, TranspositionTable.score(data, 2));
+        assertEquals(Search.MATE - 7, TranspositionTable.score(data, 4));
+
+        table.store(43, Move.NONE, -Search.MATE + 6, 3, TranspositionTable.EXACT, 2);
+        assertEquals(-Search.MATE + 4, TranspositionTable.score(table.probe(43), 0));
+    }
+
+    @Test
+    void deeperEntriesOfTheSameSearchAreKept() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(1, 18);
+        table.store(99, move, 10, 9, TranspositionTable.LOWER, 0);
+        table.store(99, Move.NONE, 20, 2, TranspositionTable.UPPER, 0);
+        assertEquals(9, TranspositionTable.depth(table.probe(99)));
+
+        table.newSearch();
+        table.store(99, Move.NONE, 20, 2, TranspositionTable.UPPER, 0);
+        long data = table.probe(99);
+        assertEquals(2, TranspositionTable.depth(data));
+        assertEquals(move, TranspositionTable.move(data), "the old best move is kept when the new entry has none");
+    }
+
+    @Test
+    void olderAndShallowerEntriesAreReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        long buckets = table.capacity() / 2;
+        long first = 5;
+        long second = first + buckets;
+        long third = second + buckets;
+        table.store(first, Move.NONE, 0, 6, TranspositionTable.EXACT, 0);
+        table.newSearch();
+        table.store(second, Move.NONE, 0, 1, TranspositionTable.EXACT, 0);
+        table.store(third, Move.NONE, 0, 4, TranspositionTable.EXACT, 0);
+
+        // each search of age counts as eight plies of depth, so the older entry goes first
+        assertEquals(TranspositionTable.MISS, table.probe(first));
+        assertNotEquals(TranspositionTable.MISS, table.probe(second));
+        assertNotEquals(TranspositionTable.MISS, table.probe(third));
+    }
+
+    @Test
+    void concurrentWritersNeverProduceMismatchedEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicLong corrupt = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    // few distinct keys in few buckets, so threads keep colliding
+                    long key = (random.nextInt(64) * 0x9E37_79B9_7F4A_7C15L) & ~0x3FFL | random.nextInt(4);
+                    table.store(key, expectedMove(key), 0, 1 + random.nextInt(20), TranspositionTable.EXACT, 0);
+                    long data = table.probe(key);
+                    if (data != TranspositionTable.MISS && TranspositionTable.move(data) != expectedMove(key)) {
+                        corrupt.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, corrupt.get());
+    }
+
+    private static int expectedMove(long key) {
+        return (int) ((key ^ (key >>> 17)) & 0x7FFF);
+    }
+
+    @Test
+    void aSharedTableSpeedsUpTheNextSearch() {
+        ChessGame game = ChessGame.fromFen("r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8");
+        TranspositionTable table = new TranspositionTable(4);
+        SearchResult cold = new Search(game, table).search(SearchLimits.depth(5));
+        SearchResult warm = new Search(game, table).search(SearchLimits.depth(5));
+        assertTrue(warm.nodes() < cold.nodes(), warm.nodes() + " vs " + cold.nodes());
+        assertTrue(table.hitRate() > 0);
+    }
+}
@@ -0,0 +1,26 @@
+package chess.perft;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelPerftTest {
+
+    @Test
+    void matchesSequentialCount() {
+        ChessGame game = new ChessGame();
+        try (ParallelPerft perft = new ParallelPerft(4)) {
+            assertEquals(197281, perft.count(game, 4));
+        }
+    }
+
+    @Test
+    void splittingDeeperGivesSameCount() {
+        ChessGame game = new ChessGame();
+        try (ParallelPerft perft = new ParallelPerft(2, 3)) {
+            assertEquals(8902, perft.count(game, 3));
+            assertEquals(197281, perft.count(game, 4));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package chess.perft;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Node counts from the standard perft reference positions
+ * (https://www.chessprogramming.org/Perft_Results). Boards are loaded with setBoard,
+ * which infers castling rights from the kings and rooks on their home squares; that
+ * matches the rights of every position listed here.
+ */
+public class PerftTest {
+
+    @Test
+    void startingPosition() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, Perft.count(game, 1));
+        assertEquals(400, Perft.count(game, 2));
+        assertEquals(8902, Perft.count(game, 3));
+        assertEquals(197281, Perft.count(game, 4));
+        assertEquals(4865609, Perft.count(game, 5));
+    }
+
+    @Test
+    void kiwipete() {
+        // r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        assertEquals(48, Perft.count(game, 1));
+        assertEquals(2039, Perft.count(game, 2));
+        assertEquals(97862, Perft.count(game, 3));
+        assertEquals(4085603, Perft.count(game, 4));
+    }
+
+    @Test
+    void promotions() {
+        // n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |n| |n| | | | | |
+                |P|P|P|k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K|p|p|p|
+                | | | | | |N| |N|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals(24, Perft.count(game, 1));
+        assertEquals(496, Perft.count(game, 2));
+        assertEquals(9483, Perft.count(game, 3));
+        assertEquals(182838, Perft.count(game, 4));
+    }
+
+    @Test
+    void endgameWithChecks() {
+        // 8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """));
+        assertEquals(14, Perft.count(game, 1));
+        assertEquals(191, Perft.count(game, 2));
+        assertEquals(2812, Perft.count(game, 3));
+        assertEquals(43238, Perft.count(game, 4));
+        assertEquals(674624, Perft.count(game, 5));
+    }
+
+    @Test
+    void castlingAndPromotionMix() {
+        // r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |P|p|p|p| |p|p|p|
+                | |b| | | |n|b|N|
+                |n|P| | | | | | |
+                |B|B|P| |P| | | |
+                |q| | | | |N| | |
+                |P|p| |P| | |P|P|
+                |R| | |Q| |R|K| |
+                """));
+        assertEquals(6, Perft.count(game, 1));
+        assertEquals(264, Perft.count(game, 2));
+        assertEquals(9467, Perft.count(game, 3));
+        assertEquals(422333, Perft.count(game, 4));
+    }
+
+    @Test
+    void position5() {
+        // rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r|n|b|q| |k| |r|
+                |p|p| |P|b|p|p|p|
+                | | |p| | | | | |
+                | | | | | | | | |
+                | | |B| | | | | |
+                | | | | | | | | |
+                |P|P|P| |N|n|P|P|
+                |R|N|B|Q|K| | |R|
+                """));
+        assertEquals(44, Perft.count(game, 1));
+        assertEquals(1486, Perft.count(game, 2));
+        assertEquals(62379, Perft.count(game, 3));
+        assertEquals(2103487, Perft.count(game, 4));
+    }
+
+    @Test
+    void divideSumsToCount() {
+        ChessGame game = new ChessGame();
+        long total = Perft.divide(game, 3).values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(20, Perft.divide(game, 3).size());
+        assertEquals(Perft.count(game, 3), total);
+    }
+}
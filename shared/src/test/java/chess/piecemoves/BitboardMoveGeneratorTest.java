@@ -0,0 +1,66 @@
+package chess.piecemoves;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitboardMoveGeneratorTest {
+
+    @Test
+    void matchesRayWalkingGeneratorsOnRandomBoards() {
+        Random random = new Random(240);
+        ChessPiece.PieceType[] types = ChessPiece.PieceType.values();
+        ChessGame.TeamColor[] colors = ChessGame.TeamColor.values();
+
+        for (int trial = 0; trial < 2000; trial++) {
+            ChessBoard board = new ChessBoard();
+            int pieceCount = 2 + random.nextInt(24);
+            for (int i = 0; i < pieceCount; i++) {
+                ChessPiece.PieceType type = types[random.nextInt(types.length)];
+                int row = (type == ChessPiece.PieceType.PAWN) ? 2 + random.nextInt(6) : 1 + random.nextInt(8);
+                board.addPiece(new ChessPosition(row, 1 + random.nextInt(8)),
+                        new ChessPiece(colors[random.nextInt(2)], type));
+            }
+
+            for (int square = 0; square < 64; square++) {
+                ChessPiece piece = board.getPiece(square);
+                if (piece != null) {
+                    ChessPosition position = ChessBoard.positionOf(square);
+                    assertEquals(new HashSet<>(legacyMoves(board, position, piece)),
+                            new HashSet<>(piece.pieceMoves(board, position)),
+                            piece + " at " + position);
+                }
+            }
+        }
+    }
+
+    @Test
+    void slidingAttacksStopAtBlockers() {
+        long blockers = (1L << 19) | (1L << 35);
+        long rook = AttackTables.rookAttacks(3, blockers);
+        assertEquals(0, rook & (1L << 27));
+        assertNotEquals(0, rook & (1L << 19));
+        assertEquals(9, Long.bitCount(rook));
+
+        long bishop = AttackTables.bishopAttacks(0, 1L << 27);
+        assertEquals((1L << 9) | (1L << 18) | (1L << 27), bishop);
+    }
+
+    private static Collection<ChessMove> legacyMoves(ChessBoard board, ChessPosition position, ChessPiece piece) {
+        Collection<ChessMove> moves = new ArrayList<>();
+        return switch (piece.getPieceType()) {
+            case KING -> new KingMoves().pieceMoves(position, board, moves, piece);
+            case QUEEN -> new QueenMoves().pieceMoves(position, board, moves, piece);
+            case BISHOP -> new BishopMoves().pieceMoves(position, board, moves, piece);
+            case KNIGHT -> new KnightMoves().pieceMoves(position, board, moves, piece);
+            case ROOK -> new RookMoves().pieceMoves(position, board, moves, piece);
+            case PAWN -> new PawnMoves().pieceMoves(position, board, moves, piece);
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package chess.piecemoves;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMoveGeneratorTest {
+
+    @Test
+    void matchesMakeAndTestFilteringOnRandomBoards() {
+        Random random = new Random(2024);
+        ChessPiece.PieceType[] types = {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+                ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.PAWN};
+
+        for (int trial = 0; trial < 3000; trial++) {
+            ChessBoard board = new ChessBoard();
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                board.addPiece(randomSquare(random, 1, 8), new ChessPiece(color, ChessPiece.PieceType.KING));
+            }
+            int pieceCount = 2 + random.nextInt(14);
+            for (int i = 0; i < pieceCount; i++) {
+                ChessPiece.PieceType type = types[random.nextInt(types.length)];
+                ChessPosition position = (type == ChessPiece.PieceType.PAWN)
+                        ? randomSquare(random, 2, 7) : randomSquare(random, 1, 8);
+                if (board.getPiece(position) == null) {
+                    board.addPiece(position, new ChessPiece(ChessGame.TeamColor.values()[random.nextInt(2)], type));
+                }
+            }
+
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                LegalMoveGenerator generator = new LegalMoveGenerator(board, color);
+                boolean anyLegal = false;
+                for (long pieces = board.getOccupancy(color); pieces != 0; pieces &= pieces - 1) {
+                    ChessPosition position = ChessBoard.positionOf(Long.numberOfTrailingZeros(pieces));
+                    Set<ChessMove> expected = filteredMoves(board, position);
+                    assertEquals(expected, new HashSet<>(generator.addLegalMoves(position, new ArrayList<>())),
+                            "moves from " + position + " on " + board);
+                    anyLegal |= !expected.isEmpty();
+                }
+                assertEquals(anyLegal, generator.hasLegalMove());
+            }
+        }
+    }
+
+    @Test
+    void pinnedPieceMovesOnlyAlongPin() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | |r| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |R| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, ChessGame.TeamColor.WHITE);
+
+        assertEquals(1L << 28, generator.getPinned());
+        assertEquals(5, Long.bitCount(generator.legalTargets(28)));
+    }
+
+    private static ChessPosition randomSquare(Random random, int minRow, int maxRow) {
+        return new ChessPosition(minRow + random.nextInt(maxRow - minRow + 1), 1 + random.nextInt(8));
+    }
+
+    private static Set<ChessMove> filteredMoves(ChessBoard board, ChessPosition start) {
+        ChessPiece piece = board.getPiece(start);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        Set<ChessMove> moves = new HashSet<>();
+        for (ChessMove move : piece.pieceMoves(board, start)) {
+            ChessPiece captured = board.getPiece(move.getEndPosition());
+            board.addPiece(move.getEndPosition(), piece);
+            board.addPiece(start, null);
+            if (!game.isInCheck(piece.getTeamColor())) {
+                moves.add(move);
+            }
+            board.addPiece(start, piece);
+            board.addPiece(move.getEndPosition(), captured);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,106 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGsonTest {
+
+    @Test
+    void moveWireFormatMatchesPlainGson() {
+        ChessMove move = new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+        assertEquals(new Gson().toJson(move), ChessGson.get().toJson(move));
+    }
+
+    @Test
+    void gameIsWrittenAsVersionedFen() {
+        ChessGame game = new ChessGame();
+        game.setGameOver(true);
+        assertEquals("{\"v\":2,\"fen\":\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\",\"gameOver\":true}",
+                ChessGson.get().toJson(game));
+        assertEquals("{\"v\":2,\"fen\":\"8/8/8/8/8/8/8/8\"}", ChessGson.get().toJson(new ChessBoard()));
+    }
+
+    @Test
+    void gamesRoundTripThroughRandomMoves() {
+        Random random = new Random(5);
+        MoveList moves = new MoveList();
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < 80; ply++) {
+            ChessGame decoded = ChessGson.get().fromJson(ChessGson.get().toJson(game), ChessGame.class);
+            assertEquals(game, decoded);
+            assertEquals(game.toFen(), decoded.toFen());
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+    @Test
+    void legacyReflectiveJsonStillReads() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.setGameOver(true);
+
+        String legacy = new Gson().toJson(game);
+        ChessGame decoded = ChessGson.get().fromJson(legacy, ChessGame.class);
+        assertEquals(game, decoded);
+        assertEquals(game.toFen(), decoded.toFen());
+        assertTrue(decoded.getGameOver());
+
+        String legacyBoardOnly = "{\"teamTurn\":\"BLACK\",\"board\":" + new Gson().toJson(game.getBoard()) + "}";
+        ChessGame oldest = ChessGson.get().fromJson(legacyBoardOnly, ChessGame.class);
+        assertEquals(game.getBoard(), oldest.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, oldest.getTeamTurn());
+    }
+
+    @Test
+    void newerVersionIsRejected() {
+        assertThrows(JsonParseException.class, () -> ChessGson.get().fromJson("{\"v\":3,\"fen\":\"\"}", ChessGame.class));
+    }
+
+    @Test
+    void deserializedGameUsesSharedPieces() {
+        String json = ChessGson.get().toJson(new ChessGame());
+        ChessGame game = ChessGson.get().fromJson(json, ChessGame.class);
+        assertEquals(new ChessGame(), game);
+
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                assertSame(ChessPiece.of(piece.getTeamColor(), piece.getPieceType()), piece);
+            }
+        }
+    }
+
+    @Test
+    void deserializedMoveUsesSharedPositions() {
+        String json = "{\"startPosition\":{\"row\":2,\"col\":5},\"endPosition\":{\"row\":4,\"col\":5}}";
+        ChessMove move = ChessGson.get().fromJson(json, ChessMove.class);
+        assertSame(ChessPosition.of(2, 5), move.getStartPosition());
+        assertSame(ChessPosition.of(4, 5), move.getEndPosition());
+        assertNull(move.getPromotionPiece());
+    }
+
+    @Test
+    void offBoardPositionsAreStillCreated() {
+        ChessPosition position = ChessPosition.of(0, 9);
+        assertEquals(0, position.getRow());
+        assertEquals(9, position.getColumn());
+    }
+}